@@ -0,0 +1,42 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.dsh105.command.HelpRender")
+@Label("Help Render")
+@Description("Help page built and sent to a command sender")
+@Category({"CommandManager", "Help"})
+@StackTrace(false)
+public class HelpRenderEvent extends Event {
+
+    @Label("Sender Type")
+    String senderType;
+
+    @Label("Page")
+    int page;
+
+    @Label("Found")
+    boolean found;
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.jfr;
+
+import com.dsh105.command.CommandEvent;
+import com.dsh105.command.CommandHandler;
+import com.dsh105.command.MatchedCommand;
+import com.dsh105.command.metrics.CommandTracer;
+import com.dsh105.command.metrics.SenderTypes;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Emits Java Flight Recorder events for commands matched, executed and rendered in help pages
+ * <p>
+ * Each event begins before the operation it describes and ends once it completes, so its duration is the time taken. Events
+ * are only committed while a recording has them enabled, so this can be left in place permanently:
+ * <pre>
+ * manager.setTracer(new JfrCommandTracer());
+ * </pre>
+ */
+public class JfrCommandTracer implements CommandTracer {
+
+    private final EventType matchEventType = EventType.getEventType(CommandMatchEvent.class);
+    private final EventType executeEventType = EventType.getEventType(CommandExecuteEvent.class);
+    private final EventType helpRenderEventType = EventType.getEventType(HelpRenderEvent.class);
+
+    @Override
+    public boolean isEnabled() {
+        return matchEventType.isEnabled() || executeEventType.isEnabled() || helpRenderEventType.isEnabled();
+    }
+
+    @Override
+    public Object matchStarted(String input) {
+        return begin(new CommandMatchEvent());
+    }
+
+    @Override
+    public void commandMatched(Object context, String input, int candidateCount, MatchedCommand matchedCommand, long nanos) {
+        CommandMatchEvent event = (CommandMatchEvent) context;
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.input = input;
+        event.candidateCount = candidateCount;
+        event.matched = matchedCommand != null;
+        if (matchedCommand != null) {
+            event.handler = matchedCommand.getCommandHandler().getCommandName();
+            event.matchedLabel = matchedCommand.getMatchedLabel();
+        }
+        event.commit();
+    }
+
+    @Override
+    public Object executionStarted(CommandHandler commandHandler, CommandEvent<?> commandEvent) {
+        return begin(new CommandExecuteEvent());
+    }
+
+    @Override
+    public void commandExecuted(Object context, CommandHandler commandHandler, CommandEvent<?> commandEvent, boolean failed, long nanos) {
+        CommandExecuteEvent event = (CommandExecuteEvent) context;
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.input = commandEvent.input();
+        event.handler = commandHandler.getCommandName();
+        event.matchedLabel = commandEvent.getVariableMatcher() == null ? null : commandEvent.getVariableMatcher().getSyntax().getCommand();
+        event.senderType = SenderTypes.describe(commandEvent.sender());
+        event.async = commandHandler.isAsync();
+        event.failed = failed;
+        event.commit();
+    }
+
+    @Override
+    public Object helpRenderStarted(CommandSender sender, int pageNumber) {
+        return begin(new HelpRenderEvent());
+    }
+
+    @Override
+    public void helpRendered(Object context, CommandSender sender, int pageNumber, boolean found, long nanos) {
+        HelpRenderEvent event = (HelpRenderEvent) context;
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.senderType = SenderTypes.describe(sender);
+        event.page = pageNumber;
+        event.found = found;
+        event.commit();
+    }
+
+    /**
+     * Starts timing an event, so that its duration covers the operation it is passed back for
+     *
+     * @param event event to start
+     * @return the started event, or null if it is not being recorded
+     */
+    private static <T extends Event> T begin(T event) {
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.processor;
+
+import com.dsh105.command.Command;
+import com.dsh105.command.CommandTable;
+import com.dsh105.command.NestedCommand;
+import com.dsh105.command.ParentCommand;
+import com.dsh105.command.Var;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.*;
+
+/**
+ * Generates a {@link com.dsh105.command.CommandTable} for every {@link com.dsh105.command.CommandListener} that declares command
+ * handlers
+ * <p>
+ * Command handlers are validated at compile time, so invalid handlers fail the build rather than the registration of their listener.
+ */
+@SupportedAnnotationTypes({"com.dsh105.command.Command", "com.dsh105.command.ParentCommand", "com.dsh105.command.NestedCommand"})
+public class CommandTableProcessor extends AbstractProcessor {
+
+    private static final String COMMAND_LISTENER = "com.dsh105.command.CommandListener";
+    private static final String COMMAND_EVENT = "com.dsh105.command.CommandEvent";
+    private static final String COMMAND_SENDER = "org.bukkit.command.CommandSender";
+    private static final String INDENT = "    ";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> listeners = new LinkedHashSet<>();
+        List<Class<? extends Annotation>> annotationTypes = Arrays.asList(Command.class, ParentCommand.class, NestedCommand.class);
+        for (Class<? extends Annotation> annotationType : annotationTypes) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotationType)) {
+                if (element.getKind() == ElementKind.METHOD) {
+                    listeners.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+
+        TypeMirror commandListener = processingEnv.getElementUtils().getTypeElement(COMMAND_LISTENER).asType();
+        for (TypeElement listener : listeners) {
+            if (processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(listener.asType()), commandListener)) {
+                generate(listener);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement listener) {
+        if (!isAccessible(listener)) {
+            // Generated tables can't refer to it, so this listener will be registered the usual way
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(listener).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(listener).toString();
+        String tableName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + CommandTable.SUFFIX;
+        if (!generated.add(binaryName)) {
+            return;
+        }
+
+        String listenerType = listener.getQualifiedName().toString();
+        Command parentCommand = listener.getAnnotation(Command.class);
+
+        List<String> entries = new ArrayList<>();
+        boolean valid = true;
+        for (ExecutableElement method : ElementFilter.methodsIn(listener.getEnclosedElements())) {
+            Command command = method.getAnnotation(Command.class);
+            String kind;
+            String parentPrefix = null;
+            String[] parentAliases = null;
+            if (command != null) {
+                NestedCommand nestedCommand = method.getAnnotation(NestedCommand.class);
+                if (nestedCommand != null) {
+                    kind = "NESTED";
+                    parentPrefix = !nestedCommand.parentCommand().isEmpty() ? nestedCommand.parentCommand() : parentCommand == null ? "" : parentCommand.command() + " ";
+                    parentAliases = parentCommand == null ? new String[0] : parentCommand.aliases();
+                    if (parentPrefix.isEmpty()) {
+                        error(method, "Either: Provide a value for \"parentCommand\" in the annotation, OR add the @Command annotation to the CommandListener class.");
+                        valid = false;
+                        continue;
+                    }
+                } else {
+                    kind = "COMMAND";
+                }
+            } else if (method.getAnnotation(ParentCommand.class) != null) {
+                kind = "PARENT";
+                command = parentCommand;
+                if (command == null) {
+                    error(method, "Parent commands require the @Command annotation on the CommandListener class.");
+                    valid = false;
+                    continue;
+                }
+            } else {
+                continue;
+            }
+
+            if (!isValid(method)) {
+                valid = false;
+                continue;
+            }
+
+            TypeMirror parameterType = method.getParameters().get(0).asType();
+            String parameterClass = processingEnv.getTypeUtils().erasure(parameterType).toString();
+            boolean injectsVariables = method.getParameters().size() > 1;
+
+            StringBuilder parameterClasses = new StringBuilder();
+            if (injectsVariables) {
+                parameterClasses.append("new Class<?>[] {");
+                for (int i = 0; i < method.getParameters().size(); i++) {
+                    if (i > 0) {
+                        parameterClasses.append(", ");
+                    }
+                    parameterClasses.append(processingEnv.getTypeUtils().erasure(method.getParameters().get(i).asType()).toString()).append(".class");
+                }
+                parameterClasses.append("}");
+            } else {
+                parameterClasses.append(parameterClass).append(".class");
+            }
+
+            StringBuilder entry = new StringBuilder();
+            entry.append("new com.dsh105.command.CommandTable.Entry(com.dsh105.command.CommandTable.Kind.").append(kind).append(", ")
+                 .append(literal(method.getSimpleName().toString())).append(", ")
+                 .append(parameterClasses).append(", ")
+                 .append(getSenderType(parameterType)).append(".class,\n");
+            appendIndent(entry, 5)
+                 .append("command(").append(literal(command.command())).append(", ")
+                 .append(literal(command.description())).append(", ")
+                 .append(literal(command.permission())).append(", ")
+                 .append(literal(command.aliases())).append(", ")
+                 .append(literal(command.help())).append(", ")
+                 .append(literal(command.usage())).append(", ")
+                 .append(command.includeInHelp()).append("),\n");
+            appendIndent(entry, 5)
+                 .append(parentPrefix == null ? "null" : literal(parentPrefix)).append(", ")
+                 .append(parentAliases == null ? "null" : literal(parentAliases)).append(",\n");
+            appendIndent(entry, 5);
+            if (method.getModifiers().contains(Modifier.PRIVATE) || injectsVariables) {
+                // Can only be called reflectively, or through the bindings made by the command handler when it is registered
+                entry.append("null)");
+            } else {
+                String target = method.getModifiers().contains(Modifier.STATIC) ? listenerType : "((" + listenerType + ") listener)";
+                entry.append("new com.dsh105.command.CommandInvoker() {\n");
+                appendLine(entry, 6, "@Override");
+                appendLine(entry, 6, "public boolean invoke(com.dsh105.command.CommandListener listener, com.dsh105.command.CommandEvent event) throws Exception {");
+                appendLine(entry, 7, "return " + target + "." + method.getSimpleName() + "((" + parameterClass + ") event);");
+                appendLine(entry, 6, "}");
+                appendIndent(entry, 5).append("})");
+            }
+            entries.add(entry.toString());
+        }
+
+        if (!valid || entries.isEmpty()) {
+            return;
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * Command table of {@link ").append(listenerType).append("}, generated by ").append(getClass().getName()).append(" - do not edit\n */\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(tableName).append(" extends com.dsh105.command.CommandTable {\n\n");
+        appendLine(source, 1, "public " + tableName + "() {");
+        appendLine(source, 2, "super(" + listenerType + ".class,");
+        for (int i = 0; i < entries.size(); i++) {
+            appendIndent(source, 4).append(entries.get(i)).append(i < entries.size() - 1 ? ",\n" : ");\n");
+        }
+        appendLine(source, 1, "}");
+        source.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile((packageName.isEmpty() ? "" : packageName + ".") + tableName, listener).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate command table: " + e.getMessage(), listener);
+        }
+    }
+
+    private boolean isValid(ExecutableElement method) {
+        StringBuilder requirements = new StringBuilder();
+        if (method.getReturnType().getKind() != TypeKind.BOOLEAN) {
+            requirements.append("must return a BOOLEAN");
+        }
+
+        TypeMirror commandEvent = processingEnv.getTypeUtils().erasure(processingEnv.getElementUtils().getTypeElement(COMMAND_EVENT).asType());
+        List<? extends VariableElement> parameters = method.getParameters();
+        boolean validParameters = !parameters.isEmpty() && processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(parameters.get(0).asType()), commandEvent);
+        for (int i = 1; i < parameters.size() && validParameters; i++) {
+            // Any other parameters must be injected variables
+            validParameters = parameters.get(i).getAnnotation(Var.class) != null;
+        }
+        if (!validParameters) {
+            if (requirements.length() > 0) {
+                requirements.append(" and ");
+            }
+            requirements.append("must have one parameter (").append(COMMAND_EVENT).append("), optionally followed by variables annotated with @").append(Var.class.getSimpleName());
+        }
+
+        if (requirements.length() > 0) {
+            error(method, "Command handler " + requirements);
+            return false;
+        }
+        return true;
+    }
+
+    private String getSenderType(TypeMirror parameterType) {
+        // Same as CommandHandler: the first type argument of the event, if there is one
+        if (parameterType instanceof DeclaredType) {
+            for (TypeMirror typeArgument : ((DeclaredType) parameterType).getTypeArguments()) {
+                if (typeArgument.getKind() == TypeKind.DECLARED) {
+                    return processingEnv.getTypeUtils().erasure(typeArgument).toString();
+                }
+            }
+        }
+        return COMMAND_SENDER;
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            if (element.getModifiers().contains(Modifier.PRIVATE) || ((TypeElement) element).getNestingKind() == NestingKind.ANONYMOUS || ((TypeElement) element).getNestingKind() == NestingKind.LOCAL) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static StringBuilder appendIndent(StringBuilder builder, int indent) {
+        for (int i = 0; i < indent; i++) {
+            builder.append(INDENT);
+        }
+        return builder;
+    }
+
+    private static void appendLine(StringBuilder builder, int indent, String line) {
+        appendIndent(builder, indent).append(line).append("\n");
+    }
+
+    private static String literal(String[] values) {
+        StringBuilder builder = new StringBuilder("new String[] {");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(literal(values[i]));
+        }
+        return builder.append("}").toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append("\"").toString();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.processor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class CommandTableProcessorTest {
+
+    // Test sources of CommandManager itself, which include the listener and the command table generated for it
+    private static final File TEST_SOURCES = new File(System.getProperty("basedir", "."), "../src/test/java/com/dsh105/command");
+
+    @Test
+    public void testGeneratedTable() throws IOException {
+        File output = Files.createTempDirectory("CommandTableProcessorTest").toFile();
+        File classes = new File(output, "classes");
+        File sources = new File(output, "sources");
+        Assert.assertTrue(classes.mkdir() && sources.mkdir());
+
+        // Generate the table for the listener and compile both of them
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", classes.getPath(), "-s", sources.getPath()), null,
+                fileManager.getJavaFileObjects(new File(TEST_SOURCES, "MockTableCommandListener.java")));
+        task.setProcessors(Collections.singletonList(new CommandTableProcessor()));
+        Assert.assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+        fileManager.close();
+        Assert.assertTrue(new File(classes, "com/dsh105/command/MockTableCommandListener_CommandTable.class").isFile());
+
+        // The checked in table must be exactly what the processor generates, apart from its license header
+        String generated = read(new File(sources, "com/dsh105/command/MockTableCommandListener_CommandTable.java"));
+        String expected = read(new File(TEST_SOURCES, "MockTableCommandListener_CommandTable.java"));
+        Assert.assertEquals(expected.substring(expected.indexOf("package ")), generated);
+
+        // Nested, private and injected handlers are all covered by the listener
+        Assert.assertTrue(generated.contains("Kind.NESTED, \"subCommand\""));
+        Assert.assertTrue(generated.contains("Kind.COMMAND, \"hiddenCommand\""));
+        Assert.assertTrue(generated.contains("new Class<?>[] {com.dsh105.command.CommandEvent.class, java.lang.Integer.class}"));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).replace("\r\n", "\n");
+    }
+}
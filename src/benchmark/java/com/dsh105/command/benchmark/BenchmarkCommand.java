@@ -0,0 +1,77 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.benchmark;
+
+import com.dsh105.command.Command;
+import com.dsh105.command.CommandManager;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Allows large numbers of commands to be generated for benchmarks without declaring a method for each
+ */
+public class BenchmarkCommand implements Command {
+
+    private String command;
+    private String[] permission;
+
+    public BenchmarkCommand(String command, String... permission) {
+        this.command = command;
+        this.permission = permission;
+    }
+
+    @Override
+    public String command() {
+        return command;
+    }
+
+    @Override
+    public String description() {
+        return "Benchmark command: " + command;
+    }
+
+    @Override
+    public String[] permission() {
+        return permission;
+    }
+
+    @Override
+    public String[] aliases() {
+        return new String[0];
+    }
+
+    @Override
+    public String[] help() {
+        return new String[0];
+    }
+
+    @Override
+    public String[] usage() {
+        return new String[]{CommandManager.DEFAULT_USAGE};
+    }
+
+    @Override
+    public boolean includeInHelp() {
+        return true;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Command.class;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.benchmark;
+
+import com.dsh105.command.CommandHandler;
+import com.dsh105.command.CommandManagerTest;
+import com.dsh105.command.HelpService;
+import com.dsh105.command.SimpleCommandManager;
+import com.dsh105.command.registration.CommandRegistry;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Command manager populated with generated commands
+ * <p>
+ * Commands are generated in groups of ten that share the same first argument, e.g. "group4 cmd42 sub" or "group4 cmd43 sub <arg>".
+ * The proportion of commands that contain a variable is determined by the given variable density (0 to 1).
+ */
+public class BenchmarkCommandManager extends SimpleCommandManager {
+
+    private final Set<CommandHandler> commandHandlers;
+    private final HelpService helpService;
+
+    public BenchmarkCommandManager(int handlerCount, double variableDensity) {
+        super(CommandManagerTest.getMockedPlugin(), "[Benchmark]");
+
+        BenchmarkListener listener = new BenchmarkListener();
+        Set<CommandHandler> commandHandlers = new HashSet<>();
+        for (int i = 0; i < handlerCount; i++) {
+            BenchmarkCommand command = new BenchmarkCommand(getCommand(i, variableDensity), "benchmark.group" + (i / 10), "benchmark.cmd" + i + (hasVariable(i, variableDensity) ? ".<arg>" : ""));
+            commandHandlers.add(new CommandHandler(listener, listener, command, BenchmarkListener.HANDLER));
+        }
+        this.commandHandlers = Collections.unmodifiableSet(commandHandlers);
+        getCommandIndex().add(commandHandlers);
+
+        this.helpService = new HelpService(this);
+    }
+
+    public static boolean hasVariable(int index, double variableDensity) {
+        return (index % 10) < Math.round(variableDensity * 10);
+    }
+
+    public static String getCommand(int index, double variableDensity) {
+        return "group" + (index / 10) + " cmd" + index + " sub" + (hasVariable(index, variableDensity) ? " <arg>" : "");
+    }
+
+    public static String getInput(int index, double variableDensity) {
+        return "group" + (index / 10) + " cmd" + index + " sub" + (hasVariable(index, variableDensity) ? " value" : "");
+    }
+
+    @Override
+    public Set<CommandHandler> getAllRegisteredCommands() {
+        return commandHandlers;
+    }
+
+    @Override
+    public HelpService getHelpService() {
+        return helpService;
+    }
+
+    @Override
+    public CommandRegistry getRegistry() {
+        return null;
+    }
+}
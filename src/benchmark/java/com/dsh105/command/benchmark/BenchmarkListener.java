@@ -0,0 +1,40 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.benchmark;
+
+import com.dsh105.command.CommandEvent;
+import com.dsh105.command.CommandListener;
+
+import java.lang.reflect.Method;
+
+public class BenchmarkListener implements CommandListener {
+
+    public static final Method HANDLER;
+
+    static {
+        try {
+            HANDLER = BenchmarkListener.class.getDeclaredMethod("handle", CommandEvent.class);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public boolean handle(CommandEvent event) {
+        return true;
+    }
+}
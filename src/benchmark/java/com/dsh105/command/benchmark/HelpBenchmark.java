@@ -0,0 +1,63 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.benchmark;
+
+import org.bukkit.command.CommandSender;
+import org.mockito.Matchers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int handlerCount;
+
+    @Param({"0", "1"})
+    public double variableDensity;
+
+    private BenchmarkCommandManager manager;
+    private CommandSender sender;
+
+    @Setup
+    public void setup() {
+        manager = new BenchmarkCommandManager(handlerCount, variableDensity);
+        manager.getHelpService().prepare();
+        sender = mock(CommandSender.class);
+        when(sender.hasPermission(Matchers.anyString())).thenReturn(true);
+    }
+
+    @Benchmark
+    public void prepare() {
+        manager.getHelpService().prepare();
+    }
+
+    @Benchmark
+    public void sendPage() {
+        manager.getHelpService().sendPage(sender, 1);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.benchmark;
+
+import com.dsh105.command.CommandEvent;
+import com.dsh105.command.CommandHandler;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares reflective invocation of a command handler against the bound invoker used by {@link com.dsh105.command.CommandHandler}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocationBenchmark {
+
+    private BenchmarkListener listener;
+    private CommandHandler handler;
+    private CommandEvent<CommandSender> event;
+
+    @Setup
+    public void setup() {
+        BenchmarkCommandManager manager = new BenchmarkCommandManager(1, 0);
+        listener = new BenchmarkListener();
+        handler = new CommandHandler(listener, listener, new BenchmarkCommand("benchmark"), BenchmarkListener.HANDLER);
+        event = new CommandEvent<>(manager, "benchmark", mock(CommandSender.class));
+    }
+
+    @Benchmark
+    public boolean reflective() throws Exception {
+        return (boolean) BenchmarkListener.HANDLER.invoke(listener, event);
+    }
+
+    @Benchmark
+    public boolean bound() throws Exception {
+        return handler.invoke(event);
+    }
+}
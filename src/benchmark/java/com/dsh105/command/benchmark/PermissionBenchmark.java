@@ -0,0 +1,65 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.benchmark;
+
+import com.dsh105.command.CommandEvent;
+import com.dsh105.command.CommandHandler;
+import com.dsh105.command.MatchedCommand;
+import com.dsh105.command.VariableMatcher;
+import org.bukkit.command.CommandSender;
+import org.mockito.Matchers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionBenchmark {
+
+    @Param({"0", "1"})
+    public double variableDensity;
+
+    private CommandHandler handler;
+    private VariableMatcher variableMatcher;
+    private CommandEvent<CommandSender> event;
+
+    @Setup
+    public void setup() {
+        BenchmarkCommandManager manager = new BenchmarkCommandManager(10, variableDensity);
+        CommandSender sender = mock(CommandSender.class);
+        when(sender.hasPermission(Matchers.anyString())).thenReturn(true);
+
+        String input = BenchmarkCommandManager.getInput(0, variableDensity);
+        MatchedCommand matchedCommand = manager.matchCommand(input);
+        handler = matchedCommand.getCommandHandler();
+        variableMatcher = matchedCommand.getVariableMatcher();
+        event = new CommandEvent<>(manager, input, sender);
+    }
+
+    @Benchmark
+    public boolean resolveAndCheckPermissions() {
+        return event.canPerform(handler.getPermissions(variableMatcher));
+    }
+}
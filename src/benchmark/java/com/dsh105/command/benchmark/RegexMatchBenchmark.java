@@ -0,0 +1,67 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.benchmark;
+
+import com.dsh105.command.CommandHandler;
+import com.dsh105.command.CommandIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches input against commands that share a prefix and differ only by a regex variable, e.g. "pick <r:\"red|option4\",n:choice>"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegexMatchBenchmark {
+
+    @Param({"10", "100"})
+    public int handlerCount;
+
+    private CommandIndex commandIndex;
+    private String input;
+
+    @Setup
+    public void setup() {
+        BenchmarkListener listener = new BenchmarkListener();
+        List<CommandHandler> commandHandlers = new ArrayList<>();
+        for (int i = 0; i < handlerCount; i++) {
+            BenchmarkCommand command = new BenchmarkCommand("pick <r:\"red|option" + i + "\",n:choice>");
+            commandHandlers.add(new CommandHandler(listener, listener, command, BenchmarkListener.HANDLER));
+        }
+        commandIndex = new CommandIndex();
+        commandIndex.add(commandHandlers);
+        input = "pick option" + (handlerCount - 1);
+    }
+
+    @Benchmark
+    public List<CommandIndex.Entry> matchRegex() {
+        return commandIndex.match(input);
+    }
+
+    @Benchmark
+    public List<CommandIndex.Entry> matchMissingRegex() {
+        return commandIndex.match("pick nothing");
+    }
+}
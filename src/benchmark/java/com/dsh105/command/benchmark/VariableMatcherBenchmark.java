@@ -0,0 +1,70 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.benchmark;
+
+import com.dsh105.command.CommandSyntax;
+import com.dsh105.command.Variable;
+import com.dsh105.command.VariableMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableMatcherBenchmark {
+
+    @Param({"0", "1", "4"})
+    public int variableCount;
+
+    private String command;
+    private String input;
+    private CommandSyntax syntax;
+
+    @Setup
+    public void setup() {
+        StringBuilder command = new StringBuilder("benchmark sub");
+        StringBuilder input = new StringBuilder("benchmark sub");
+        for (int i = 0; i < variableCount; i++) {
+            command.append(" <var").append(i).append(">");
+            input.append(" value").append(i);
+        }
+        this.command = command.toString();
+        this.input = input.toString();
+        this.syntax = new CommandSyntax(this.command);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return new VariableMatcher(syntax, input).matches();
+    }
+
+    @Benchmark
+    public boolean matchesUncompiled() {
+        return new VariableMatcher(command, input).matches();
+    }
+
+    @Benchmark
+    public Map<Variable, String> getMatchedArguments() {
+        return new VariableMatcher(syntax, input).getMatchedArguments();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+/**
+ * Converts the argument entered for a typed variable, e.g. "<amount:int>", into a value
+ * <p>
+ * Parsers are registered by type name using {@link com.dsh105.command.ArgumentParsers#register(String, ArgumentParser)}
+ *
+ * @param <T> type of value produced by this parser
+ */
+public interface ArgumentParser<T> {
+
+    /**
+     * Parses an argument
+     *
+     * @param argument argument entered for the variable. Never null or empty
+     * @return the parsed value, or null if the argument is not valid for this type
+     */
+    T parse(String argument);
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the parsers used for typed variables, e.g. "<amount:int>" or "<target:player>"
+ * <p>
+ * Parsers are looked up once, when the syntax of a command is compiled. Types must therefore be registered before any command that uses
+ * them, otherwise registration of that command fails with an {@link com.dsh105.command.exception.InvalidCommandException}
+ */
+public final class ArgumentParsers {
+
+    private static final ConcurrentHashMap<String, ArgumentParser<?>> PARSERS = new ConcurrentHashMap<>();
+
+    public static final ArgumentParser<String> STRING = new ArgumentParser<String>() {
+        @Override
+        public String parse(String argument) {
+            return argument;
+        }
+    };
+
+    public static final ArgumentParser<Integer> INTEGER = new ArgumentParser<Integer>() {
+        @Override
+        public Integer parse(String argument) {
+            try {
+                return Integer.parseInt(argument);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    };
+
+    public static final ArgumentParser<Long> LONG = new ArgumentParser<Long>() {
+        @Override
+        public Long parse(String argument) {
+            try {
+                return Long.parseLong(argument);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    };
+
+    public static final ArgumentParser<Double> DOUBLE = new ArgumentParser<Double>() {
+        @Override
+        public Double parse(String argument) {
+            try {
+                double value = Double.parseDouble(argument);
+                return Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    };
+
+    public static final ArgumentParser<Boolean> BOOLEAN = new ArgumentParser<Boolean>() {
+        @Override
+        public Boolean parse(String argument) {
+            if (argument.equalsIgnoreCase("true") || argument.equalsIgnoreCase("yes") || argument.equalsIgnoreCase("on")) {
+                return true;
+            }
+            if (argument.equalsIgnoreCase("false") || argument.equalsIgnoreCase("no") || argument.equalsIgnoreCase("off")) {
+                return false;
+            }
+            return null;
+        }
+    };
+
+    public static final ArgumentParser<Player> PLAYER = new ArgumentParser<Player>() {
+        @Override
+        public Player parse(String argument) {
+            return Bukkit.getPlayerExact(argument);
+        }
+    };
+
+    public static final ArgumentParser<World> WORLD = new ArgumentParser<World>() {
+        @Override
+        public World parse(String argument) {
+            return Bukkit.getWorld(argument);
+        }
+    };
+
+    static {
+        register("string", STRING);
+        register("int", INTEGER);
+        register("integer", INTEGER);
+        register("long", LONG);
+        register("double", DOUBLE);
+        register("boolean", BOOLEAN);
+        register("player", PLAYER);
+        register("world", WORLD);
+    }
+
+    private ArgumentParsers() {
+    }
+
+    /**
+     * Registers a parser for a type of variable
+     * <p>
+     * Commands that have already been registered keep the parser they were compiled with
+     *
+     * @param type   name of the type, e.g. "int" for "<amount:int>". Not case sensitive
+     * @param parser parser used for variables of that type
+     */
+    public static void register(String type, ArgumentParser<?> parser) {
+        if (type == null || type.isEmpty()) {
+            throw new IllegalArgumentException("Type must not be empty");
+        }
+        if (parser == null) {
+            throw new IllegalArgumentException("Parser must not be null");
+        }
+        PARSERS.put(type.toLowerCase(), parser);
+    }
+
+    public static void unregister(String type) {
+        PARSERS.remove(type.toLowerCase());
+    }
+
+    /**
+     * Gets the parser registered for a type of variable
+     *
+     * @param type name of the type. Not case sensitive
+     * @return the registered parser, or null if there is none
+     */
+    public static ArgumentParser<?> getParser(String type) {
+        return PARSERS.get(type.toLowerCase());
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a command handler that should be executed off the main thread, e.g. one that performs blocking database queries
+ * <p>
+ * Asynchronous command handlers are executed using the {@link java.util.concurrent.Executor} provided by
+ * {@link com.dsh105.command.ICommandManager#getAsyncExecutor()}. Responses sent through {@link com.dsh105.command.CommandEvent} are
+ * delivered on the main thread. See {@link com.dsh105.command.AsyncCommandExecutor} for handlers that perform a lot of blocking I/O.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Async {
+
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor for {@link com.dsh105.command.Async} command handlers that limits how many may run at once
+ * <p>
+ * Handlers are run on virtual threads when the JVM supports them (Java 21+), so that many blocking handlers can be in flight without
+ * a large thread pool. On older JVMs, a fixed pool of platform threads is used instead. Handlers submitted while the concurrency limit
+ * is reached are queued until another handler finishes, or rejected if the queue is full.
+ * <p>
+ * Use with {@link com.dsh105.command.ICommandManager#setAsyncExecutor(java.util.concurrent.Executor)}
+ */
+public class AsyncCommandExecutor implements Executor {
+
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int maximumConcurrency;
+    private final int maximumQueued;
+    private final Semaphore permits;
+    private final Queue<QueuedTask> queue = new ConcurrentLinkedQueue<>();
+    private volatile boolean shutdown;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalQueueTime = new AtomicLong();
+    private final AtomicLong maximumQueueTime = new AtomicLong();
+
+    /**
+     * @param maximumConcurrency maximum number of handlers that may run at once
+     * @param maximumQueued      maximum number of handlers that may wait for others to finish before new ones are rejected
+     */
+    public AsyncCommandExecutor(int maximumConcurrency, int maximumQueued) {
+        this(maximumConcurrency, maximumQueued, true);
+    }
+
+    /**
+     * @param maximumConcurrency maximum number of handlers that may run at once
+     * @param maximumQueued      maximum number of handlers that may wait for others to finish before new ones are rejected
+     * @param preferVirtual      whether to use virtual threads when they are supported by the JVM
+     */
+    public AsyncCommandExecutor(int maximumConcurrency, int maximumQueued, boolean preferVirtual) {
+        if (maximumConcurrency <= 0) {
+            throw new IllegalArgumentException("Maximum concurrency must be positive");
+        }
+        if (maximumQueued < 0) {
+            throw new IllegalArgumentException("Maximum queue size cannot be negative");
+        }
+        this.maximumConcurrency = maximumConcurrency;
+        this.maximumQueued = maximumQueued;
+        this.permits = new Semaphore(maximumConcurrency);
+
+        ExecutorService virtualExecutor = preferVirtual ? createVirtualExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : Executors.newFixedThreadPool(maximumConcurrency, new ThreadFactory() {
+            private final int pool = POOL_COUNT.incrementAndGet();
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "CommandManager-async-" + pool + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private static ExecutorService createVirtualExecutor() {
+        try {
+            // Not available before Java 21
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+
+        if (permits.tryAcquire()) {
+            if (queue.isEmpty()) {
+                start(new QueuedTask(command));
+                return;
+            }
+            // Don't skip ahead of handlers that are already waiting
+            permits.release();
+        }
+
+        if (queued.incrementAndGet() > maximumQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Too many commands are waiting to be executed (" + maximumQueued + ")");
+        }
+        queue.add(new QueuedTask(command));
+        drain();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            QueuedTask task = queue.poll();
+            if (task == null) {
+                permits.release();
+                return;
+            }
+            queued.decrementAndGet();
+            start(task);
+        }
+    }
+
+    private void start(final QueuedTask task) {
+        long queueTime = System.nanoTime() - task.queuedAt;
+        started.incrementAndGet();
+        totalQueueTime.addAndGet(queueTime);
+        long maximum;
+        while (queueTime > (maximum = maximumQueueTime.get()) && !maximumQueueTime.compareAndSet(maximum, queueTime)) {
+            // Retry until the maximum is up to date
+        }
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    active.incrementAndGet();
+                    try {
+                        task.runnable.run();
+                    } finally {
+                        active.decrementAndGet();
+                        completed.incrementAndGet();
+                        permits.release();
+                        try {
+                            drain();
+                        } catch (RejectedExecutionException ignored) {
+                            // Already counted - nothing else to do with it on this thread
+                        }
+                        if (shutdown && queue.isEmpty()) {
+                            executor.shutdown();
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            started.decrementAndGet();
+            permits.release();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting new handlers. Handlers that are already running or queued are still executed
+     */
+    public void shutdown() {
+        shutdown = true;
+        if (queue.isEmpty()) {
+            executor.shutdown();
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Gets whether handlers are run on virtual threads
+     *
+     * @return true if handlers are run on virtual threads, false if a pool of platform threads is used
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getMaximumConcurrency() {
+        return maximumConcurrency;
+    }
+
+    public int getMaximumQueued() {
+        return maximumQueued;
+    }
+
+    /**
+     * Gets the number of handlers waiting for others to finish
+     *
+     * @return number of queued handlers
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Gets the number of handlers currently running
+     *
+     * @return number of running handlers
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    public long getStarted() {
+        return started.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Gets the average time handlers spent queued before they were started
+     *
+     * @param unit unit to return the time in
+     * @return average queue time in the given unit
+     */
+    public long getAverageQueueTime(TimeUnit unit) {
+        long started = this.started.get();
+        return started <= 0 ? 0 : unit.convert(totalQueueTime.get() / started, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time a handler spent queued before it was started
+     *
+     * @param unit unit to return the time in
+     * @return maximum queue time in the given unit
+     */
+    public long getMaximumQueueTime(TimeUnit unit) {
+        return unit.convert(maximumQueueTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private static class QueuedTask {
+
+        private final Runnable runnable;
+        private final long queuedAt = System.nanoTime();
+
+        private QueuedTask(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+}
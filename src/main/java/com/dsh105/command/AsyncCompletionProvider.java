@@ -0,0 +1,30 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+/**
+ * Provides tab completions for a variable without blocking the thread requesting them, e.g. by looking up offline player names in a
+ * database
+ * <p>
+ * {@link #complete(org.bukkit.command.CommandSender, String)} is called using the manager's asynchronous executor (see {@link
+ * com.dsh105.command.ICommandManager#getAsyncExecutor()}) and may be interrupted if the sender requests completions again before it
+ * returns. Results are cached by the {@link com.dsh105.command.CompletionService} and shared between all senders, so they should not
+ * depend on who requested them.
+ */
+public interface AsyncCompletionProvider extends CompletionProvider {
+}
@@ -17,18 +17,18 @@
 
 package com.dsh105.command;
 
-import com.dsh105.commodus.StringUtil;
+import com.dsh105.powermessage.core.PowerMessage;
 import com.dsh105.powermessage.markup.MarkupBuilder;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 
 public class CommandEvent<T extends CommandSender> {
 
-    private String input;
+    private CommandInput input;
     private ICommandManager manager;
     private String command;
     private T sender;
@@ -37,23 +37,22 @@ public class CommandEvent<T extends CommandSender> {
     private VariableMatcher variableMatcher;
 
     public CommandEvent(ICommandManager manager, String args, T sender) {
-        this(manager, sender, args.trim().replaceAll("\\s+", " ").split("\\s"));
+        this(manager, CommandInput.parse(args), sender);
     }
 
     public CommandEvent(ICommandManager manager, T sender, String... args) {
-        this(manager, args[0].trim(), sender, StringUtil.combineArray(1, " ", args));
+        this(manager, CommandInput.of(args[0], Arrays.copyOfRange(args, 1, args.length)), sender);
     }
 
     public CommandEvent(ICommandManager manager, String command, T sender, String... args) {
+        this(manager, CommandInput.of(command, args), sender);
+    }
+
+    public CommandEvent(ICommandManager manager, CommandInput input, T sender) {
         this.manager = manager;
-        this.command = command;
+        this.input = input;
+        this.command = input.isEmpty() ? "" : input.get(0);
         this.sender = sender;
-        this.args = args;
-
-        ArrayList<String> argsList = new ArrayList<>();
-        argsList.add(command);
-        argsList.addAll(Arrays.asList(args));
-        this.input = StringUtil.combine(" ", argsList).trim();
     }
 
     public Plugin getPlugin() {
@@ -76,6 +75,28 @@ public class CommandEvent<T extends CommandSender> {
         return variableMatcher.getMatchedArgumentByVariableName(variable);
     }
 
+    /**
+     * Gets the value of a variable. Values of typed variables, e.g. "<amount:int>", are parsed when the command is matched
+     *
+     * @param variable name of the variable
+     * @param <V>      type of value, e.g. Integer for "<amount:int>" or String for variables without a type
+     * @return value of the variable, or null if nothing was entered for it
+     */
+    public <V> V value(String variable) {
+        return variableMatcher.getValue(variable);
+    }
+
+    /**
+     * Gets the value of a variable
+     *
+     * @param slot index of the variable, in the order variables appear in the syntax of the command
+     * @param <V>  type of value, e.g. Integer for "<amount:int>" or String for variables without a type
+     * @return value of the variable, or null if nothing was entered for it
+     */
+    public <V> V value(int slot) {
+        return variableMatcher.getValue(slot);
+    }
+
     public String command() {
         return command;
     }
@@ -85,10 +106,22 @@ public class CommandEvent<T extends CommandSender> {
     }
 
     public String input() {
+        return input.getInput();
+    }
+
+    /**
+     * Gets the tokenized input of this event
+     *
+     * @return tokenized input, shared with the matched command's {@link com.dsh105.command.VariableMatcher}
+     */
+    public CommandInput getCommandInput() {
         return input;
     }
 
     public String[] args() {
+        if (args == null) {
+            args = input.toArray(1);
+        }
         return args;
     }
 
@@ -97,12 +130,12 @@ public class CommandEvent<T extends CommandSender> {
     }
 
     public String arg(int index) {
-        return args[index];
+        return args()[index];
     }
 
     public boolean canPerform(String... permissions) {
         for (String permission : permissions) {
-            if (!permission.isEmpty() && !sender.hasPermission(permission)) {
+            if (!permission.isEmpty() && !manager.hasPermission(sender, permission)) {
                 respond(ResponseLevel.SEVERE, manager.getMessenger().getNoPermissionMessage() + (VariableMatcher.containsVariables(permission) ? " Or maybe a variable was invalid?" : ""));
                 return false;
             }
@@ -122,7 +155,19 @@ public class CommandEvent<T extends CommandSender> {
         String message = formatColour + manager.getMessenger().format(response, formatColour, highlightColour);
 
         // Take care of any conversions, special formatting, etc.
-        new MarkupBuilder().withText((manager.getResponsePrefix() != null && !manager.getResponsePrefix().isEmpty() ? manager.getResponsePrefix() + " " : "") + ChatColor.RESET + message).build().send(sender());
+        final PowerMessage powerMessage = new MarkupBuilder().withText((manager.getResponsePrefix() != null && !manager.getResponsePrefix().isEmpty() ? manager.getResponsePrefix() + " " : "") + ChatColor.RESET + message).build();
+
+        if (Bukkit.getServer() != null && !Bukkit.isPrimaryThread() && getPlugin().isEnabled()) {
+            // Responding from an asynchronous command handler - send it from the main thread instead
+            Bukkit.getScheduler().runTask(getPlugin(), new Runnable() {
+                @Override
+                public void run() {
+                    powerMessage.send(sender());
+                }
+            });
+            return;
+        }
+        powerMessage.send(sender());
     }
 
 }
\ No newline at end of file
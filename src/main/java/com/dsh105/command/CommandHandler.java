@@ -17,12 +17,24 @@
 
 package com.dsh105.command;
 
+import com.dsh105.command.exception.InvalidCommandException;
+import com.dsh105.command.metrics.HandlerMetrics;
+import com.dsh105.commodus.StringUtil;
 import org.bukkit.command.CommandSender;
 
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class CommandHandler implements Comparable<CommandHandler> {
 
@@ -30,14 +42,48 @@ public class CommandHandler implements Comparable<CommandHandler> {
     private CommandListener registeredTo;
     private Command command;
     private Method accessor;
+    private MethodHandle invoker;
+    private CommandInvoker commandInvoker;
+    private boolean async;
+    private final HandlerMetrics metrics = new HandlerMetrics();
     private Class<?> acceptedSenderType;
+    private List<CommandSyntax> syntaxes;
+    private List<PermissionTemplate[]> permissions;
+    private String[] staticPermissions;
+    private String[] injectedVariables;
+    private Object[] injectedDefaults;
+    private int[][] bindings;
 
     public CommandHandler(CommandListener parentListener, CommandListener registeredTo, Command command, Method accessor) {
+        this(parentListener, registeredTo, command, accessor, getSenderType(accessor), null);
+    }
+
+    /**
+     * Creates a command handler from the information generated in a {@link com.dsh105.command.CommandTable}
+     *
+     * @param parentListener     listener the handler belongs to
+     * @param registeredTo       listener the handler is registered to
+     * @param command            command executed by the handler
+     * @param accessor           command handler method
+     * @param acceptedSenderType type of sender accepted by the handler
+     * @param commandInvoker     direct invoker of the handler. If null, the handler is invoked in the same way as any other handler
+     */
+    public CommandHandler(CommandListener parentListener, CommandListener registeredTo, Command command, Method accessor, Class<?> acceptedSenderType, CommandInvoker commandInvoker) {
         this.parent = parentListener;
         this.registeredTo = registeredTo;
         this.command = command;
         this.accessor = accessor;
-        this.acceptedSenderType = getSenderType();
+        this.acceptedSenderType = acceptedSenderType;
+        this.async = accessor.isAnnotationPresent(Async.class);
+        this.syntaxes = buildSyntaxes();
+        this.permissions = buildPermissions();
+        this.staticPermissions = buildStaticPermissions();
+        this.injectedVariables = buildInjectedVariables();
+        this.bindings = buildBindings();
+        this.commandInvoker = commandInvoker;
+        if (commandInvoker == null) {
+            this.invoker = bindInvoker();
+        }
     }
 
     public CommandListener getParent() {
@@ -56,6 +102,138 @@ public class CommandHandler implements Comparable<CommandHandler> {
         return accessor;
     }
 
+    /**
+     * Resolves the permissions required to perform this command, inclusive of all parent permissions
+     *
+     * @param variableMatcher variable matcher of the matched command. Must have been created from one of this command's syntaxes
+     * @return permissions that must be checked before this command is executed. Variables in each permission are replaced with the
+     * arguments they matched
+     */
+    public String[] getPermissions(VariableMatcher variableMatcher) {
+        int syntaxIndex = syntaxes.indexOf(variableMatcher.getSyntax());
+        if (syntaxIndex < 0) {
+            // Not one of ours, so the permissions will have to be compiled for it
+            return resolvePermissions(buildPermissions(variableMatcher.getSyntax()), variableMatcher);
+        }
+        return resolvePermissions(permissions.get(syntaxIndex), variableMatcher);
+    }
+
+    /**
+     * Gets the permissions required to perform this command that do not depend on any input, inclusive of all parent permissions
+     *
+     * @return permissions that are always checked before this command is executed
+     */
+    public String[] getStaticPermissions() {
+        return staticPermissions;
+    }
+
+    private String[] resolvePermissions(PermissionTemplate[] templates, VariableMatcher variableMatcher) {
+        if (templates.length == 0) {
+            return StringUtil.EMPTY_STRING_ARRAY;
+        }
+
+        String[] resolved = new String[templates.length];
+        for (int i = 0; i < templates.length; i++) {
+            resolved[i] = templates[i].resolve(variableMatcher);
+        }
+        return resolved;
+    }
+
+    /**
+     * Executes this command handler for the given event
+     * <p>
+     * Uses the generated {@link com.dsh105.command.CommandInvoker} or a {@link java.lang.invoke.MethodHandle} bound to the handler's
+     * listener where possible, only falling back to reflection if the handler could not be accessed that way. Variables injected using
+     * {@link com.dsh105.command.Var} are read from the slots of the event's matched syntax, as bound when this handler was created.
+     * <p>
+     * However the handler is invoked, anything it throws is wrapped in an {@link java.lang.reflect.InvocationTargetException}, just
+     * as it is by {@link java.lang.reflect.Method#invoke(Object, Object...)}
+     *
+     * @param event event to pass to the command handler
+     * @return the result of the command handler
+     * @throws java.lang.reflect.InvocationTargetException if the command handler threw an exception
+     * @throws Exception                                   if the command handler could not be invoked
+     */
+    public boolean invoke(CommandEvent event) throws Exception {
+        if (commandInvoker != null) {
+            try {
+                return commandInvoker.invoke(parent, event);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        if (bindings == null) {
+            if (invoker == null) {
+                return (boolean) accessor.invoke(parent, event);
+            }
+
+            try {
+                return (boolean) invoker.invokeExact(event);
+            } catch (Throwable e) {
+                // Keep consistent with the reflective approach
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        Object[] arguments = bindArguments(event);
+        if (invoker == null) {
+            return (boolean) accessor.invoke(parent, arguments);
+        }
+
+        try {
+            return (boolean) invoker.invokeExact(arguments);
+        } catch (Throwable e) {
+            // Keep consistent with the reflective approach
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private Object[] bindArguments(CommandEvent event) {
+        Object[] arguments = new Object[injectedVariables.length + 1];
+        arguments[0] = event;
+
+        VariableMatcher variableMatcher = event.getVariableMatcher();
+        int[] slots = variableMatcher == null ? null : getBinding(variableMatcher.getSyntax());
+        for (int i = 0; i < injectedVariables.length; i++) {
+            Object value = slots == null || slots[i] < 0 ? null : variableMatcher.getValue(slots[i]);
+            arguments[i + 1] = value == null ? injectedDefaults[i] : value;
+        }
+        return arguments;
+    }
+
+    private int[] getBinding(CommandSyntax syntax) {
+        for (int i = 0; i < syntaxes.size(); i++) {
+            if (syntaxes.get(i) == syntax) {
+                return bindings[i];
+            }
+        }
+        // Not one of ours, so the variables will have to be bound to it
+        return buildBinding(syntax);
+    }
+
+    /**
+     * Gets the names of the variables injected into this command handler's parameters using {@link com.dsh105.command.Var}
+     *
+     * @return names of the injected variables, in the order of the parameters they are injected into
+     */
+    public String[] getInjectedVariables() {
+        return injectedVariables;
+    }
+
+    /**
+     * Gets whether this command handler is executed off the main thread
+     *
+     * @return true if the command handler is annotated with {@link com.dsh105.command.Async}
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    public HandlerMetrics getMetrics() {
+        return metrics;
+    }
+
     public Class<?> getAcceptedSenderType() {
         return acceptedSenderType;
     }
@@ -72,6 +250,24 @@ public class CommandHandler implements Comparable<CommandHandler> {
         return command.command();
     }
 
+    /**
+     * Gets the compiled syntax of this command's name
+     *
+     * @return compiled syntax of the command name
+     */
+    public CommandSyntax getSyntax() {
+        return syntaxes.get(0);
+    }
+
+    /**
+     * Gets the compiled syntax of every label this command can be executed with
+     *
+     * @return compiled syntax of the command name, followed by that of each alias in the order they were declared
+     */
+    public List<CommandSyntax> getSyntaxes() {
+        return syntaxes;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -97,65 +293,155 @@ public class CommandHandler implements Comparable<CommandHandler> {
         return result;
     }
 
-    protected static int compare(String command, String commandToCompare) {
-        /*
-         * Conditions:
-         * Commands with a great number of arguments get priority over those with less
-         * Commands with no variables get priority over those without
-         * Commands with variables later on get priority over commands with variables placed earlier in the syntax
-         * Commands with regex variables are filtered last, as sometimes the regex may override commands above, which *should* get precedence
-         * Finally, longer commands get priority over shorter commands
-         */
-        int firstArgsLength = command.split("\\s").length;
-        int secondArgsLength = commandToCompare.split("\\s").length;
-        boolean firstContainsVars = VariableMatcher.containsVariables(command);
-        boolean secondContainsVars = VariableMatcher.containsVariables(commandToCompare);
-        boolean firstContainsRegexVars = VariableMatcher.containsRegexVariables(command);
-        boolean secondContainsRegexVars = VariableMatcher.containsRegexVariables(commandToCompare);
-        int firstVarIndex = Arrays.asList(commandToCompare.replaceAll(VariableMatcher.SYNTAX_PATTERN.pattern(), "<>").split("\\s")).indexOf("<>");
-        int secondVarIndex = Arrays.asList(command.replaceAll(VariableMatcher.SYNTAX_PATTERN.pattern(), "<>").split("\\s")).indexOf("<>");
-        int variableDiff = firstVarIndex - secondVarIndex;
-        int lengthComparison = firstArgsLength != secondArgsLength ? secondArgsLength - firstArgsLength : commandToCompare.length() - command.length();
-
-        if (firstContainsVars && secondContainsVars) {
-            // They both have the same variable type - compare variable position
-            // Gives commands with other words before variables priority
-            // e.g. "/command sub <hello>" is more important than "/command <hello>"
-            if (firstContainsRegexVars == secondContainsRegexVars) {
-                return variableDiff != 0 ? variableDiff : lengthComparison;
+    @Override
+    public int compareTo(CommandHandler handler) {
+        // The sort key of each command is computed once when its syntax is compiled
+        return getSyntax().compareTo(handler.getSyntax());
+    }
+
+    private MethodHandle bindInvoker() {
+        try {
+            if (!accessor.isAccessible()) {
+                accessor.setAccessible(true);
+            }
+
+            MethodHandle methodHandle = MethodHandles.lookup().unreflect(accessor);
+            if (!Modifier.isStatic(accessor.getModifiers())) {
+                methodHandle = methodHandle.bindTo(parent);
+            }
+            if (bindings != null) {
+                // Arguments are passed as an array filled in by bindArguments
+                return methodHandle.asType(MethodType.genericMethodType(injectedVariables.length + 1).changeReturnType(boolean.class)).asSpreader(Object[].class, injectedVariables.length + 1);
+            }
+            return methodHandle.asType(MethodType.methodType(boolean.class, CommandEvent.class));
+        } catch (SecurityException | IllegalAccessException e) {
+            // Reflection will have to do
+            return null;
+        }
+    }
+
+    private String[] buildInjectedVariables() {
+        Class<?>[] parameterTypes = accessor.getParameterTypes();
+        Annotation[][] parameterAnnotations = accessor.getParameterAnnotations();
+        String[] injectedVariables = new String[Math.max(parameterTypes.length - 1, 0)];
+        injectedDefaults = new Object[injectedVariables.length];
+        for (int i = 0; i < injectedVariables.length; i++) {
+            Var var = getVar(parameterAnnotations[i + 1]);
+            if (var == null) {
+                throw new InvalidCommandException("Parameter " + (i + 1) + " of command handler " + accessor.getName() + " must be annotated with @" + Var.class.getSimpleName());
             }
+            injectedVariables[i] = var.value();
 
-            // Regex variables get priority over normal variables
-            return variableDiff != 0 ? variableDiff : (firstContainsRegexVars ? -1 : 1);
+            Class<?> parameterType = parameterTypes[i + 1];
+            if (parameterType.isPrimitive()) {
+                injectedDefaults[i] = Array.get(Array.newInstance(parameterType, 1), 0);
+            }
         }
+        return injectedVariables;
+    }
 
-        if (firstContainsVars == secondContainsVars) {
-            // They both have no variables
+    private int[][] buildBindings() {
+        if (injectedVariables.length == 0) {
+            return null;
+        }
 
-            // Compare lengths - longer commands get priority as they are harder to find matches for
-            // Commands with more args also get a higher priority
-            return lengthComparison;
+        int[][] bindings = new int[syntaxes.size()][];
+        for (int i = 0; i < bindings.length; i++) {
+            bindings[i] = buildBinding(syntaxes.get(i));
         }
 
-        // One of the commands has at least one variable
-        return firstVarIndex < secondArgsLength ? 1 : (firstVarIndex < secondArgsLength ? -1 : lengthComparison);
+        // Every injected variable must at least exist in the command itself - aliases may leave some out
+        CommandSyntax syntax = getSyntax();
+        Class<?>[] parameterTypes = accessor.getParameterTypes();
+        for (int i = 0; i < injectedVariables.length; i++) {
+            int slot = bindings[0][i];
+            if (slot < 0) {
+                throw new InvalidCommandException("Command handler " + accessor.getName() + " injects a variable that does not exist in \"" + syntax.getCommand() + "\": \"" + injectedVariables[i] + "\"");
+            }
+
+            Class<?> parameterType = parameterTypes[i + 1];
+            if (!syntax.getVariable(slot).isTyped() && !parameterType.isAssignableFrom(String.class)) {
+                throw new InvalidCommandException("Command handler " + accessor.getName() + " injects a variable without a type (\"" + injectedVariables[i] + "\") into a parameter of type " + parameterType.getSimpleName());
+            }
+        }
+        return bindings;
     }
 
-    @Override
-    public int compareTo(CommandHandler handler) {
-        return compare(getCommandName(), handler.getCommandName());
+    private int[] buildBinding(CommandSyntax syntax) {
+        int[] binding = new int[injectedVariables.length];
+        for (int i = 0; i < binding.length; i++) {
+            binding[i] = syntax.getSlot(injectedVariables[i]);
+        }
+        return binding;
+    }
+
+    protected static Var getVar(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Var) {
+                return (Var) annotation;
+            }
+        }
+        return null;
+    }
+
+    private List<PermissionTemplate[]> buildPermissions() {
+        List<PermissionTemplate[]> permissions = new ArrayList<>();
+        for (CommandSyntax syntax : syntaxes) {
+            permissions.add(buildPermissions(syntax));
+        }
+        return Collections.unmodifiableList(permissions);
+    }
+
+    private String[] buildStaticPermissions() {
+        List<String> staticPermissions = new ArrayList<>();
+        for (PermissionTemplate template : permissions.get(0)) {
+            if (!template.containsVariables()) {
+                staticPermissions.add(template.getPermission());
+            }
+        }
+        return staticPermissions.toArray(new String[staticPermissions.size()]);
+    }
+
+    private PermissionTemplate[] buildPermissions(CommandSyntax syntax) {
+        List<PermissionTemplate> templates = new ArrayList<>();
+        addPermissions(templates, command, syntax);
+
+        Command parentCommand = getParentCommand();
+        if (parentCommand != null) {
+            addPermissions(templates, parentCommand, syntax);
+        }
+        return templates.toArray(new PermissionTemplate[templates.size()]);
+    }
+
+    private void addPermissions(List<PermissionTemplate> templates, Command command, CommandSyntax syntax) {
+        for (String permission : command.permission()) {
+            PermissionTemplate template = new PermissionTemplate(permission, syntax);
+
+            // Empty permissions don't need to be checked and invalid ones are never used
+            if (!template.isEmpty() && template.isValid()) {
+                templates.add(template);
+            }
+        }
+    }
+
+    private List<CommandSyntax> buildSyntaxes() {
+        List<CommandSyntax> syntaxes = new ArrayList<>();
+        syntaxes.add(new CommandSyntax(getCommandName()));
+        for (String alias : command.aliases()) {
+            syntaxes.add(new CommandSyntax(alias));
+        }
+        return Collections.unmodifiableList(syntaxes);
     }
 
-    private Class<?> getSenderType() {
+    private static Class<?> getSenderType(Method accessor) {
+        // Only the event decides the type of sender - any other parameters are injected variables
         Type[] genericParameterTypes = accessor.getGenericParameterTypes();
-        for (Type genericType : genericParameterTypes) {
-            if (genericType instanceof ParameterizedType) {
-                ParameterizedType parameterizedType = (ParameterizedType) genericType;
-                Type[] paramArgTypes = parameterizedType.getActualTypeArguments();
-                for (Type paramArgType : paramArgTypes) {
-                    if (paramArgType != null) {
-                        return (Class<?>) paramArgType;
-                    }
+        if (genericParameterTypes.length > 0 && genericParameterTypes[0] instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) genericParameterTypes[0];
+            Type[] paramArgTypes = parameterizedType.getActualTypeArguments();
+            for (Type paramArgType : paramArgTypes) {
+                if (paramArgType != null) {
+                    return (Class<?>) paramArgType;
                 }
             }
         }
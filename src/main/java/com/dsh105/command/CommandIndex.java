@@ -0,0 +1,762 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import com.dsh105.command.exception.MatchAbortedException;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Token-level trie over the labels (names and aliases) of all indexed command handlers
+ * <p>
+ * Literal tokens are stored as edges keyed by their lower case form, while variables are stored as wildcard edges. Regex variables are
+ * stored as edges keyed by their regex, and all of those leaving a node are tested against a token at once. Walking the trie
+ * for a given input only visits the paths that input could possibly follow, so the number of candidates returned depends on the input
+ * rather than on the number of registered handlers. Candidates are structural matches only - they should still be confirmed by a
+ * {@link com.dsh105.command.VariableMatcher}.
+ * <p>
+ * Published nodes are never modified. Changes copy the nodes along the affected paths and then replace the root, so matching is
+ * lock-free and safe from any thread while handlers are being added or removed.
+ * <p>
+ * The same structure is used for tab completion: the tokens already entered are walked in the same way as they are for matching, and
+ * the edges leading out of the nodes reached are the possible next tokens.
+ */
+public class CommandIndex {
+
+    private volatile Node root = new Node();
+    private int sequence;
+
+    public synchronized void add(Collection<CommandHandler> commandHandlers) {
+        Mutation mutation = new Mutation();
+        Node root = mutation.copy(this.root);
+        for (CommandHandler commandHandler : commandHandlers) {
+            add(mutation, root, commandHandler);
+        }
+        this.root = root;
+    }
+
+    public synchronized void add(CommandHandler commandHandler) {
+        add(Collections.singleton(commandHandler));
+    }
+
+    private void add(Mutation mutation, Node root, CommandHandler commandHandler) {
+        // Keeps the order of handlers with identical sort keys consistent
+        int handlerSequence = sequence++;
+
+        List<CommandSyntax> syntaxes = commandHandler.getSyntaxes();
+        for (int i = 0; i < syntaxes.size(); i++) {
+            Entry entry = new Entry(commandHandler, syntaxes.get(i), i, handlerSequence);
+
+            Node node = root;
+            List<String> tokens = entry.getSyntax().getArguments();
+            for (int j = 0; j < tokens.size(); j++) {
+                Node child = mutation.copy(node.getChild(tokens.get(j), j == 0));
+                node.setChild(tokens.get(j), j == 0, child);
+                child.addName(getName(entry.getSyntax(), j), 1);
+                node = child;
+            }
+            if (!node.entries.contains(entry)) {
+                // Entries are kept in order of priority so that matching never has to sort them
+                int insertionIndex = Collections.binarySearch(node.entries, entry);
+                node.entries.add(insertionIndex < 0 ? -insertionIndex - 1 : insertionIndex, entry);
+            }
+        }
+    }
+
+    public synchronized void remove(Collection<CommandHandler> commandHandlers) {
+        Mutation mutation = new Mutation();
+        Node root = mutation.copy(this.root);
+        for (CommandHandler commandHandler : commandHandlers) {
+            for (CommandSyntax syntax : commandHandler.getSyntaxes()) {
+                remove(mutation, root, commandHandler, syntax, 0);
+            }
+        }
+        this.root = root;
+    }
+
+    public synchronized void remove(CommandHandler commandHandler) {
+        remove(Collections.singleton(commandHandler));
+    }
+
+    private boolean remove(Mutation mutation, Node node, CommandHandler commandHandler, CommandSyntax syntax, int index) {
+        List<String> tokens = syntax.getArguments();
+        if (index == tokens.size()) {
+            Iterator<Entry> iter = node.entries.iterator();
+            while (iter.hasNext()) {
+                if (iter.next().getCommandHandler().equals(commandHandler)) {
+                    iter.remove();
+                }
+            }
+        } else {
+            Node child = node.getChild(tokens.get(index), index == 0);
+            if (child != null) {
+                child = mutation.copy(child);
+                node.setChild(tokens.get(index), index == 0, child);
+                child.addName(getName(syntax, index), -1);
+                if (remove(mutation, child, commandHandler, syntax, index + 1)) {
+                    // Prune any branches that no longer lead anywhere
+                    node.setChild(tokens.get(index), index == 0, null);
+                }
+            }
+        }
+        return node.isEmpty();
+    }
+
+    public synchronized void clear() {
+        root = new Node();
+    }
+
+    /**
+     * Retrieves all labels that could structurally match the given input, in order of priority
+     *
+     * @param input command input to match, e.g. "command sub argument"
+     * @return ordered list of candidate labels. Handlers are sorted in order of importance, with the labels of each handler in the
+     * order they were declared (command name first, followed by aliases)
+     */
+    public List<Entry> match(String input) {
+        return match(CommandInput.parse(input));
+    }
+
+    /**
+     * Retrieves all labels that could structurally match the given input, in order of priority
+     *
+     * @param input tokenized command input to match
+     * @return ordered list of candidate labels. Handlers are sorted in order of importance, with the labels of each handler in the
+     * order they were declared (command name first, followed by aliases)
+     */
+    public List<Entry> match(CommandInput input) {
+        return match(input, RegexGuard.UNBOUNDED);
+    }
+
+    /**
+     * Retrieves all labels that could structurally match the given input, in order of priority
+     *
+     * @param input      tokenized command input to match
+     * @param regexGuard guard limiting the regexes of regex variables. Aborted regexes are treated as though they did not match
+     * @return ordered list of candidate labels. Handlers are sorted in order of importance, with the labels of each handler in the
+     * order they were declared (command name first, followed by aliases)
+     */
+    public List<Entry> match(CommandInput input, RegexGuard regexGuard) {
+        if (input.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // The first token is always a literal - commands cannot begin with a variable
+        Node first = this.root.getChild(input.get(0), true);
+        if (first == null) {
+            return Collections.emptyList();
+        }
+
+        ArrayList<Node> found = new ArrayList<>(1);
+        walk(first, input, 1, regexGuard, found);
+        if (found.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (found.size() == 1) {
+            // Already in order of priority
+            return Collections.unmodifiableList(found.get(0).entries);
+        }
+
+        ArrayList<Entry> candidates = new ArrayList<>();
+        for (Node node : found) {
+            candidates.addAll(node.entries);
+        }
+        Collections.sort(candidates);
+        return candidates;
+    }
+
+    private void walk(Node node, CommandInput tokens, int index, RegexGuard regexGuard, List<Node> found) {
+        if (index == tokens.size()) {
+            if (!node.entries.isEmpty() && !found.contains(node)) {
+                found.add(node);
+            }
+
+            // Optional variables may also match nothing at all
+            if (node.optional != null) {
+                walk(node.optional, tokens, index, regexGuard, found);
+            }
+            return;
+        }
+
+        Node literal = node.literals.get(tokens.get(index).toLowerCase());
+        if (literal != null) {
+            walk(literal, tokens, index + 1, regexGuard, found);
+        }
+
+        if (node.variable != null) {
+            walk(node.variable, tokens, index + 1, regexGuard, found);
+        }
+
+        if (!node.regex.isEmpty()) {
+            for (Node regex : node.getRegexSet().match(tokens.get(index), regexGuard)) {
+                walk(regex, tokens, index + 1, regexGuard, found);
+            }
+        }
+
+        if (node.optional != null) {
+            walk(node.optional, tokens, index + 1, regexGuard, found);
+            walk(node.optional, tokens, index, regexGuard, found);
+        }
+
+        if (node.continuous != null) {
+            // Continuous variables consume at least one argument, and possibly all of those remaining
+            for (int i = index + 1; i <= tokens.size(); i++) {
+                walk(node.continuous, tokens, i, regexGuard, found);
+            }
+        }
+    }
+
+    /**
+     * Finds the tokens that could be entered after the given input
+     *
+     * @param tokens  tokens already entered, beginning with the command label
+     * @param partial part of the next token that has been entered so far. May be empty
+     * @param filter  filter for the command handlers that may be completed, or null to complete all of them
+     * @return literal tokens beginning with the partial token, and the names of any variables that could be entered instead. Tokens
+     * are only included if they lead to at least one command handler accepted by the filter
+     */
+    public Completions complete(List<String> tokens, String partial, Filter filter) {
+        return complete(tokens, partial, filter, RegexGuard.UNBOUNDED);
+    }
+
+    /**
+     * Finds the tokens that could be entered after the given input
+     *
+     * @param tokens     tokens already entered, beginning with the command label
+     * @param partial    part of the next token that has been entered so far. May be empty
+     * @param filter     filter for the command handlers that may be completed, or null to complete all of them
+     * @param regexGuard guard limiting the regexes of regex variables
+     * @return literal tokens beginning with the partial token, and the names of any variables that could be entered instead
+     */
+    public Completions complete(List<String> tokens, String partial, Filter filter, RegexGuard regexGuard) {
+        if (tokens.isEmpty()) {
+            return new Completions(Collections.<String>emptyList(), Collections.<String>emptySet());
+        }
+
+        Node first = this.root.getChild(tokens.get(0), true);
+        if (first == null) {
+            return new Completions(Collections.<String>emptyList(), Collections.<String>emptySet());
+        }
+
+        Set<Node> reached = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        Set<Node> continuing = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        reach(first, tokens, 1, regexGuard, reached, continuing);
+
+        // Candidates often lead to the same command handlers - only ask the filter about each of them once
+        if (filter != null) {
+            filter = new CachedFilter(filter);
+        }
+
+        TreeSet<String> literals = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        LinkedHashSet<String> variables = new LinkedHashSet<>();
+        String prefix = partial.toLowerCase();
+        for (Node node : reached) {
+            String[] sortedLiterals = node.getSortedLiterals();
+            int start = Arrays.binarySearch(sortedLiterals, prefix);
+            for (int i = start < 0 ? -start - 1 : start; i < sortedLiterals.length && sortedLiterals[i].startsWith(prefix); i++) {
+                Node literal = node.literals.get(sortedLiterals[i]);
+                if (literal.accepts(filter)) {
+                    literals.add(literal.getLiteralName());
+                }
+            }
+
+            addVariables(node.variable, filter, variables);
+            for (Node regex : node.regex.values()) {
+                addVariables(regex, filter, variables);
+            }
+            addVariables(node.optional, filter, variables);
+            addVariables(node.continuous, filter, variables);
+        }
+
+        // Continuous variables may carry on into the token being completed
+        for (Node node : continuing) {
+            addVariables(node, filter, variables);
+        }
+        return new Completions(new ArrayList<>(literals), variables);
+    }
+
+    private void reach(Node node, List<String> tokens, int index, RegexGuard regexGuard, Set<Node> reached, Set<Node> continuing) {
+        if (index == tokens.size()) {
+            reached.add(node);
+
+            // Optional variables may also be skipped entirely
+            if (node.optional != null) {
+                reach(node.optional, tokens, index, regexGuard, reached, continuing);
+            }
+            return;
+        }
+
+        Node literal = node.literals.get(tokens.get(index).toLowerCase());
+        if (literal != null) {
+            reach(literal, tokens, index + 1, regexGuard, reached, continuing);
+        }
+
+        if (node.variable != null) {
+            reach(node.variable, tokens, index + 1, regexGuard, reached, continuing);
+        }
+
+        if (!node.regex.isEmpty()) {
+            for (Node regex : node.getRegexSet().match(tokens.get(index), regexGuard)) {
+                reach(regex, tokens, index + 1, regexGuard, reached, continuing);
+            }
+        }
+
+        if (node.optional != null) {
+            reach(node.optional, tokens, index + 1, regexGuard, reached, continuing);
+            reach(node.optional, tokens, index, regexGuard, reached, continuing);
+        }
+
+        if (node.continuous != null) {
+            for (int i = index + 1; i <= tokens.size(); i++) {
+                reach(node.continuous, tokens, i, regexGuard, reached, continuing);
+            }
+            continuing.add(node.continuous);
+        }
+    }
+
+    private void addVariables(Node node, Filter filter, Set<String> variables) {
+        if (node != null && node.accepts(filter)) {
+            variables.addAll(node.names.keySet());
+        }
+    }
+
+    private static String getName(CommandSyntax syntax, int index) {
+        for (Variable variable : syntax.getVariables()) {
+            if (variable.getRange().getStartIndex() == index) {
+                return variable.getName();
+            }
+        }
+        return syntax.getArguments().get(index);
+    }
+
+    protected static TokenType getTokenType(String token) {
+        if (getRegex(token) != null) {
+            return TokenType.REGEX;
+        }
+
+        Matcher syntaxMatcher = VariableMatcher.SYNTAX_PATTERN.matcher(token);
+        if (syntaxMatcher.find()) {
+            if (syntaxMatcher.group(2).endsWith("...")) {
+                return TokenType.CONTINUOUS;
+            }
+            return syntaxMatcher.group(0).equals(token) && syntaxMatcher.group(1).equals("[") ? TokenType.OPTIONAL : TokenType.VARIABLE;
+        }
+
+        if (VariableMatcher.containsRegexVariables(token)) {
+            return TokenType.VARIABLE;
+        }
+        return TokenType.LITERAL;
+    }
+
+    /**
+     * Gets the regex of a token that consists of a single required regex variable, e.g. "<r:\"such|match\",n:name>"
+     *
+     * @param token token to get the regex of
+     * @return regex of the variable, or null if the token is not a required regex variable
+     */
+    protected static String getRegex(String token) {
+        Matcher regexMatcher = VariableMatcher.REGEX_SYNTAX_PATTERN.matcher(token);
+        if (regexMatcher.matches() && regexMatcher.group(1).equals("<") && !token.endsWith("...>")) {
+            return regexMatcher.group(2);
+        }
+        return null;
+    }
+
+    protected enum TokenType {
+        LITERAL,
+        VARIABLE,
+        REGEX,
+        OPTIONAL,
+        CONTINUOUS
+    }
+
+    public static class Entry implements Comparable<Entry> {
+
+        private CommandHandler commandHandler;
+        private CommandSyntax syntax;
+        private int labelIndex;
+        private int handlerSequence;
+
+        protected Entry(CommandHandler commandHandler, CommandSyntax syntax, int labelIndex, int handlerSequence) {
+            this.commandHandler = commandHandler;
+            this.syntax = syntax;
+            this.labelIndex = labelIndex;
+            this.handlerSequence = handlerSequence;
+        }
+
+        public CommandHandler getCommandHandler() {
+            return commandHandler;
+        }
+
+        public CommandSyntax getSyntax() {
+            return syntax;
+        }
+
+        public String getLabel() {
+            return syntax.getCommand();
+        }
+
+        public int getLabelIndex() {
+            return labelIndex;
+        }
+
+        public boolean isAlias() {
+            return labelIndex > 0;
+        }
+
+        @Override
+        public int compareTo(Entry entry) {
+            // Handlers in order of importance, then each handler's labels in the order they were declared
+            int handlerComparison = commandHandler.compareTo(entry.commandHandler);
+            if (handlerComparison != 0) {
+                return handlerComparison;
+            }
+            if (handlerSequence != entry.handlerSequence) {
+                return handlerSequence - entry.handlerSequence;
+            }
+            return labelIndex - entry.labelIndex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Entry entry = (Entry) o;
+
+            return labelIndex == entry.labelIndex && commandHandler.equals(entry.commandHandler);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = commandHandler.hashCode();
+            result = 31 * result + labelIndex;
+            return result;
+        }
+    }
+
+    /**
+     * Decides which command handlers can be completed, e.g. those the sender has permission to use
+     */
+    public interface Filter {
+
+        boolean accept(CommandHandler commandHandler);
+    }
+
+    private static class CachedFilter implements Filter {
+
+        private final Filter filter;
+        private final IdentityHashMap<CommandHandler, Boolean> accepted = new IdentityHashMap<>();
+
+        private CachedFilter(Filter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean accept(CommandHandler commandHandler) {
+            Boolean result = accepted.get(commandHandler);
+            if (result == null) {
+                result = filter.accept(commandHandler);
+                accepted.put(commandHandler, result);
+            }
+            return result;
+        }
+    }
+
+    public static class Completions {
+
+        private final List<String> literals;
+        private final Set<String> variables;
+
+        protected Completions(List<String> literals, Set<String> variables) {
+            this.literals = Collections.unmodifiableList(literals);
+            this.variables = Collections.unmodifiableSet(variables);
+        }
+
+        /**
+         * Gets the literal tokens that could be entered next, as they were declared
+         *
+         * @return literal tokens in alphabetical order
+         */
+        public List<String> getLiterals() {
+            return literals;
+        }
+
+        /**
+         * Gets the names of the variables that could be entered next
+         *
+         * @return names of variables
+         */
+        public Set<String> getVariables() {
+            return variables;
+        }
+    }
+
+    /**
+     * Nodes copied during a single change. These have not been published yet, so they can be modified freely
+     */
+    private static class Mutation {
+
+        private final Set<Node> copies = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+
+        private Node copy(Node node) {
+            if (node != null && copies.contains(node)) {
+                return node;
+            }
+            Node copy = node == null ? new Node() : new Node(node);
+            copies.add(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * The regex variables leaving a node, combined into a single pattern
+     * <p>
+     * Each regex is wrapped in a lookahead followed by an empty marker group, e.g. "(?:(?=(?:such|match)\z)())?". A single match of the
+     * combined pattern therefore tests the token against every regex, and the marker groups that participated identify those it matched.
+     * Regexes that cannot be combined (e.g. those with backreferences, which would refer to the wrong group) are tested separately.
+     */
+    private static class RegexSet {
+
+        private static final Pattern BACKREFERENCE_PATTERN = Pattern.compile("\\\\(?:[1-9]|k<)");
+
+        private final Node[] children;
+        private final Pattern[] patterns;
+        private final int[] markers;
+        private final Pattern combined;
+
+        private RegexSet(Map<String, Node> regex) {
+            this.children = new Node[regex.size()];
+            this.patterns = new Pattern[regex.size()];
+            this.markers = new int[regex.size()];
+
+            StringBuilder builder = new StringBuilder();
+            int group = 0;
+            int i = 0;
+            for (Map.Entry<String, Node> entry : regex.entrySet()) {
+                children[i] = entry.getValue();
+                patterns[i] = Pattern.compile(entry.getKey());
+                if (BACKREFERENCE_PATTERN.matcher(entry.getKey()).find()) {
+                    markers[i] = -1;
+                } else {
+                    group += patterns[i].matcher("").groupCount() + 1;
+                    markers[i] = group;
+                    builder.append("(?:(?=(?:").append(entry.getKey()).append(")\\z)())?");
+                }
+                i++;
+            }
+
+            Pattern combined = null;
+            if (group > 0) {
+                try {
+                    combined = Pattern.compile(builder.toString());
+                } catch (PatternSyntaxException e) {
+                    // e.g. named groups declared by more than one regex
+                    Arrays.fill(markers, -1);
+                }
+            }
+            this.combined = combined;
+        }
+
+        private List<Node> match(String token, RegexGuard regexGuard) {
+            List<Node> matched = new ArrayList<>(1);
+            Matcher matcher = combined == null ? null : combined.matcher(regexGuard.bound(token));
+            if (matcher != null) {
+                try {
+                    // Always succeeds - the marker groups say which regexes matched
+                    matcher.lookingAt();
+                } catch (MatchAbortedException e) {
+                    // Test them separately instead, so that only those at fault are aborted (and reported)
+                    matcher = null;
+                }
+            }
+
+            for (int i = 0; i < children.length; i++) {
+                boolean matches = markers[i] < 0 || matcher == null ? regexGuard.matches(patterns[i], token) : matcher.start(markers[i]) >= 0;
+                if (matches) {
+                    matched.add(children[i]);
+                }
+            }
+            return matched;
+        }
+    }
+
+    private static class Node {
+
+        private final HashMap<String, Node> literals;
+        // Regex variables, keyed by their regex
+        private final LinkedHashMap<String, Node> regex;
+        private final ArrayList<Entry> entries;
+        // Tokens leading to this node as they were declared (or variable names), with the number of labels using each
+        private final HashMap<String, Integer> names;
+        private Node variable;
+        private Node optional;
+        private Node continuous;
+        // Only ever built for published nodes, which are never modified
+        private volatile String[] sortedLiterals;
+        private volatile RegexSet regexSet;
+        private volatile CommandHandler[] handlers;
+
+        private Node() {
+            this.literals = new HashMap<>();
+            this.regex = new LinkedHashMap<>();
+            this.entries = new ArrayList<>();
+            this.names = new HashMap<>();
+        }
+
+        private Node(Node node) {
+            this.literals = new HashMap<>(node.literals);
+            this.regex = new LinkedHashMap<>(node.regex);
+            this.entries = new ArrayList<>(node.entries);
+            this.names = new HashMap<>(node.names);
+            this.variable = node.variable;
+            this.optional = node.optional;
+            this.continuous = node.continuous;
+        }
+
+        private void addName(String name, int count) {
+            Integer existing = names.get(name);
+            int updated = (existing == null ? 0 : existing) + count;
+            if (updated > 0) {
+                names.put(name, updated);
+            } else {
+                names.remove(name);
+            }
+        }
+
+        private String getLiteralName() {
+            // Labels may declare the same token in different cases - pick one consistently
+            String literalName = null;
+            for (String name : names.keySet()) {
+                if (literalName == null || name.compareTo(literalName) < 0) {
+                    literalName = name;
+                }
+            }
+            return literalName;
+        }
+
+        private String[] getSortedLiterals() {
+            String[] sortedLiterals = this.sortedLiterals;
+            if (sortedLiterals == null) {
+                sortedLiterals = literals.keySet().toArray(new String[literals.size()]);
+                Arrays.sort(sortedLiterals);
+                this.sortedLiterals = sortedLiterals;
+            }
+            return sortedLiterals;
+        }
+
+        private RegexSet getRegexSet() {
+            RegexSet regexSet = this.regexSet;
+            if (regexSet == null) {
+                regexSet = new RegexSet(regex);
+                this.regexSet = regexSet;
+            }
+            return regexSet;
+        }
+
+        /**
+         * Gets every command handler that can be reached from this node, i.e. the handlers of this node and all of its descendants
+         */
+        private CommandHandler[] getHandlers() {
+            CommandHandler[] handlers = this.handlers;
+            if (handlers == null) {
+                Set<CommandHandler> collected = Collections.newSetFromMap(new IdentityHashMap<CommandHandler, Boolean>());
+                for (Entry entry : entries) {
+                    collected.add(entry.getCommandHandler());
+                }
+                for (Node literal : literals.values()) {
+                    Collections.addAll(collected, literal.getHandlers());
+                }
+                for (Node child : regex.values()) {
+                    Collections.addAll(collected, child.getHandlers());
+                }
+                for (Node child : new Node[]{variable, optional, continuous}) {
+                    if (child != null) {
+                        Collections.addAll(collected, child.getHandlers());
+                    }
+                }
+                handlers = collected.toArray(new CommandHandler[collected.size()]);
+                this.handlers = handlers;
+            }
+            return handlers;
+        }
+
+        private boolean accepts(Filter filter) {
+            CommandHandler[] handlers = getHandlers();
+            if (filter == null) {
+                return handlers.length > 0;
+            }
+            for (CommandHandler handler : handlers) {
+                if (filter.accept(handler)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Node getChild(String token, boolean literal) {
+            switch (literal ? TokenType.LITERAL : getTokenType(token)) {
+                case VARIABLE:
+                    return variable;
+                case REGEX:
+                    return regex.get(getRegex(token));
+                case OPTIONAL:
+                    return optional;
+                case CONTINUOUS:
+                    return continuous;
+                default:
+                    return literals.get(token.toLowerCase());
+            }
+        }
+
+        private void setChild(String token, boolean literal, Node child) {
+            switch (literal ? TokenType.LITERAL : getTokenType(token)) {
+                case VARIABLE:
+                    variable = child;
+                    break;
+                case REGEX:
+                    if (child == null) {
+                        regex.remove(getRegex(token));
+                    } else {
+                        regex.put(getRegex(token), child);
+                    }
+                    break;
+                case OPTIONAL:
+                    optional = child;
+                    break;
+                case CONTINUOUS:
+                    continuous = child;
+                    break;
+                default:
+                    if (child == null) {
+                        literals.remove(token.toLowerCase());
+                    } else {
+                        literals.put(token.toLowerCase(), child);
+                    }
+            }
+        }
+
+        private boolean isEmpty() {
+            return entries.isEmpty() && literals.isEmpty() && regex.isEmpty() && variable == null && optional == null && continuous == null;
+        }
+    }
+}
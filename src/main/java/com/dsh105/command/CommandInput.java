@@ -0,0 +1,187 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import com.dsh105.commodus.StringUtil;
+
+import java.util.Arrays;
+
+/**
+ * Tokenized command input, e.g. "command sub argument"
+ * <p>
+ * Input is tokenized once, in a single pass that also normalises it: tokens are separated by exactly one space, without any leading
+ * or trailing whitespace. Tokens are stored as offsets into the normalised input, so joining a range of tokens back together (e.g. for
+ * continuous variables) is a single substring. Input that is already normalised is used as it is, without being copied.
+ * <p>
+ * Instances are immutable and are intended to be created once per {@link com.dsh105.command.CommandEvent}, then shared by matching,
+ * variable extraction and {@link CommandEvent#args()}.
+ */
+public class CommandInput {
+
+    private final String input;
+    // Start offset of each token. Each token ends one character before the next one starts
+    private final int[] offsets;
+    private volatile String[] tokens;
+
+    private CommandInput(String input, int[] offsets) {
+        this.input = input;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Tokenizes command input
+     *
+     * @param input input to tokenize, e.g. "command sub argument"
+     * @return tokenized input
+     */
+    public static CommandInput parse(String input) {
+        return tokenize(input);
+    }
+
+    /**
+     * Tokenizes command input that has already been split into parts, e.g. by Bukkit
+     *
+     * @param command command label
+     * @param args    arguments following the label. Empty arguments are ignored, and arguments containing whitespace are split
+     * @return tokenized input
+     */
+    public static CommandInput of(String command, String... args) {
+        if (args.length == 0) {
+            return tokenize(command);
+        }
+        String[] parts = new String[args.length + 1];
+        parts[0] = command;
+        System.arraycopy(args, 0, parts, 1, args.length);
+        return tokenize(parts);
+    }
+
+    private static CommandInput tokenize(String... parts) {
+        int[] offsets = new int[8];
+        int size = 0;
+        int length = 0;
+
+        // Only needed if the input is not normalised already
+        StringBuilder normalised = null;
+        for (String text : parts) {
+            int i = 0;
+            while (i < text.length()) {
+                if (Character.isWhitespace(text.charAt(i))) {
+                    i++;
+                    continue;
+                }
+
+                int end = i + 1;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+                    end++;
+                }
+
+                int start = size == 0 ? 0 : length + 1;
+                if (normalised == null && (parts.length > 1 || i != start || (size > 0 && text.charAt(i - 1) != ' '))) {
+                    // Everything up to this token was normalised, so it can be copied as it is
+                    normalised = new StringBuilder(text.length());
+                    normalised.append(text, 0, length);
+                }
+                if (normalised != null) {
+                    if (size > 0) {
+                        normalised.append(' ');
+                    }
+                    normalised.append(text, i, end);
+                }
+
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                offsets[size++] = start;
+                length = start + end - i;
+                i = end;
+            }
+        }
+
+        String input = normalised != null ? normalised.toString() : (size == 0 ? "" : parts[0].substring(0, length));
+        return new CommandInput(input, Arrays.copyOf(offsets, size));
+    }
+
+    private static int getEnd(int[] offsets, int token, int size, int length) {
+        return token + 1 < size ? offsets[token + 1] - 1 : length;
+    }
+
+    /**
+     * Gets the normalised input
+     *
+     * @return input with tokens separated by single spaces
+     */
+    public String getInput() {
+        return input;
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    public boolean isEmpty() {
+        return offsets.length == 0;
+    }
+
+    public String get(int index) {
+        return getTokens()[index];
+    }
+
+    /**
+     * Joins all tokens from the given index onwards
+     *
+     * @param fromIndex index of the first token to include
+     * @return tokens separated by single spaces, or an empty string if there are no tokens from the given index
+     */
+    public String join(int fromIndex) {
+        if (fromIndex >= offsets.length) {
+            return "";
+        }
+        return fromIndex == 0 ? input : input.substring(offsets[fromIndex]);
+    }
+
+    /**
+     * Copies a range of tokens into a new array
+     *
+     * @param fromIndex index of the first token to include
+     * @return tokens from the given index onwards
+     */
+    public String[] toArray(int fromIndex) {
+        String[] tokens = getTokens();
+        if (fromIndex >= tokens.length) {
+            return StringUtil.EMPTY_STRING_ARRAY;
+        }
+        return Arrays.copyOfRange(tokens, fromIndex, tokens.length);
+    }
+
+    private String[] getTokens() {
+        String[] tokens = this.tokens;
+        if (tokens == null) {
+            tokens = new String[offsets.length];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = input.substring(offsets[i], getEnd(offsets, i, offsets.length, input.length()));
+            }
+            this.tokens = tokens;
+        }
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return input;
+    }
+}
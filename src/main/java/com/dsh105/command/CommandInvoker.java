@@ -0,0 +1,36 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+/**
+ * Calls a command handler directly, without going through reflection
+ * <p>
+ * Implementations are generated at compile time as part of a {@link com.dsh105.command.CommandTable}
+ */
+public interface CommandInvoker {
+
+    /**
+     * Executes a command handler
+     *
+     * @param listener listener the command handler belongs to
+     * @param event    event to pass to the command handler
+     * @return the result of the command handler
+     * @throws Exception if the command handler threw an exception
+     */
+    boolean invoke(CommandListener listener, CommandEvent event) throws Exception;
+}
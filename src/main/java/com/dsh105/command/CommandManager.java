@@ -18,12 +18,14 @@
 package com.dsh105.command;
 
 import com.dsh105.command.registration.CommandRegistry;
+import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 
 public class CommandManager extends SimpleCommandManager {
 
     private final CommandRegistry registry;
     private final HelpService helpService;
+    private boolean permissionCacheListenerRegistered;
 
     public CommandManager(Plugin owningPlugin) {
         this(owningPlugin, "");
@@ -35,6 +37,16 @@ public class CommandManager extends SimpleCommandManager {
         this.helpService = new HelpService(this);
     }
 
+    @Override
+    public void setPermissionCache(PermissionCache permissionCache) {
+        super.setPermissionCache(permissionCache);
+        if (permissionCache != null && !permissionCacheListenerRegistered) {
+            // Keeps cached permissions from outliving a player's session
+            Bukkit.getPluginManager().registerEvents(new PermissionCacheListener(this), getPlugin());
+            permissionCacheListenerRegistered = true;
+        }
+    }
+
     @Override
     public HelpService getHelpService() {
         return helpService;
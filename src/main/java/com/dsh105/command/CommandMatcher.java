@@ -17,12 +17,82 @@
 
 package com.dsh105.command;
 
+import com.dsh105.command.metrics.CommandTracer;
+
 import java.util.*;
+import java.util.regex.Pattern;
 
 public abstract class CommandMatcher {
 
+    private final CommandIndex commandIndex = new CommandIndex();
+    private final SuggestionIndex suggestionIndex = new SuggestionIndex();
+    private volatile CommandTracer tracer;
+    private volatile RegexGuard regexGuard = createRegexGuard(RegexGuard.DEFAULT_MAXIMUM_READS);
+
     public abstract Set<CommandHandler> getAllRegisteredCommands();
 
+    public CommandIndex getCommandIndex() {
+        return commandIndex;
+    }
+
+    public SuggestionIndex getSuggestionIndex() {
+        return suggestionIndex;
+    }
+
+    public CommandTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Sets the tracer that commands are timed for. Disabled (null) by default
+     *
+     * @param tracer tracer to pass timings to, or null to disable tracing
+     */
+    public void setTracer(CommandTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Gets the guard limiting the regexes run against command input by this manager
+     *
+     * @return guard used when matching commands
+     */
+    public RegexGuard getRegexGuard() {
+        return regexGuard;
+    }
+
+    public long getRegexReadLimit() {
+        return regexGuard.getMaximumReads();
+    }
+
+    /**
+     * Sets the number of characters a single regex may read from command input before the match is aborted. Defaults to
+     * {@link com.dsh105.command.RegexGuard#DEFAULT_MAXIMUM_READS}
+     *
+     * @param maximumReads maximum number of characters read per match, or 0 to not limit matches
+     */
+    public void setRegexReadLimit(long maximumReads) {
+        this.regexGuard = createRegexGuard(maximumReads);
+    }
+
+    private RegexGuard createRegexGuard(long maximumReads) {
+        return new RegexGuard(maximumReads) {
+            @Override
+            protected void aborted(Pattern pattern, CharSequence input) {
+                onMatchAborted(pattern, input);
+            }
+        };
+    }
+
+    /**
+     * Called when a regex run against command input is aborted for reading too many characters
+     *
+     * @param pattern pattern that was aborted
+     * @param input   input it was matched against
+     */
+    protected void onMatchAborted(Pattern pattern, CharSequence input) {
+    }
+
     public List<CommandHandler> matchCommands(String commandArguments) {
         return matchCommands(getAllRegisteredCommands(), commandArguments);
     }
@@ -86,16 +156,38 @@ public abstract class CommandMatcher {
     }
 
     public MatchedCommand matchCommand(String fullCommand) {
-        for (CommandHandler handler : matchCommands(fullCommand)) {
-            List<String> commandLabels = new ArrayList<>();
-            commandLabels.add(handler.getCommandName());
-            Collections.addAll(commandLabels, handler.getCommand().aliases());
-
-            for (String label : commandLabels) {
-                VariableMatcher variableMatcher = new VariableMatcher(label, fullCommand);
-                if (variableMatcher.matches() || variableMatcher.testRegexVariables()) {
-                    return new MatchedCommand(label, handler);
+        return matchCommand(CommandInput.parse(fullCommand));
+    }
+
+    public MatchedCommand matchCommand(CommandInput fullCommand) {
+        CommandTracer tracer = this.tracer;
+        if (tracer == null || !tracer.isEnabled()) {
+            return matchCommand(fullCommand, null);
+        }
+
+        int[] candidateCount = new int[1];
+        Object context = tracer.matchStarted(fullCommand.getInput());
+        long start = System.nanoTime();
+        MatchedCommand matchedCommand = matchCommand(fullCommand, candidateCount);
+        tracer.commandMatched(context, fullCommand.getInput(), candidateCount[0], matchedCommand, System.nanoTime() - start);
+        return matchedCommand;
+    }
+
+    private MatchedCommand matchCommand(CommandInput fullCommand, int[] candidateCount) {
+        RegexGuard regexGuard = this.regexGuard;
+
+        // Candidates are already in order of importance
+        for (CommandIndex.Entry candidate : commandIndex.match(fullCommand, regexGuard)) {
+            if (candidateCount != null) {
+                candidateCount[0]++;
+            }
+            VariableMatcher variableMatcher = new VariableMatcher(candidate.getSyntax(), fullCommand);
+            if (variableMatcher.matches(regexGuard) || variableMatcher.testRegexVariables(regexGuard)) {
+                if (candidate.getSyntax().containsTypedVariables() && !variableMatcher.parseValues()) {
+                    // Invalid for this syntax - a less specific command may still accept it
+                    continue;
                 }
+                return new MatchedCommand(candidate.getLabel(), candidate.getCommandHandler(), variableMatcher);
             }
         }
         return null;
@@ -0,0 +1,276 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import com.dsh105.command.exception.InvalidCommandException;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled form of a command label, e.g. "command <variable> [optional]"
+ * <p>
+ * Holds everything about the syntax of a command that does not depend on user input: its variables, the pattern used to match
+ * input against it and a human readable form of the syntax. Instances are immutable and are intended to be created once when a command
+ * is registered, then shared between every {@link com.dsh105.command.VariableMatcher} created for that label.
+ */
+public class CommandSyntax implements Comparable<CommandSyntax> {
+
+    private final String command;
+    private final List<String> arguments;
+    private final List<Variable> variables;
+    private final List<Variable> regexVariables;
+    private final Variable[] slots;
+    private final Map<String, Integer> slotIndices;
+    private final String syntaxPattern;
+    private final String humanReadableSyntax;
+    private final Pattern pattern;
+    private final int firstVariableIndex;
+    private final boolean containsRegexVariables;
+    private final boolean containsTypedVariables;
+
+    public CommandSyntax(String command) {
+        this.command = command;
+        this.arguments = Collections.unmodifiableList(Arrays.asList(command.split("\\s")));
+
+        String syntaxPattern = command;
+        String humanReadableSyntax = command;
+
+        ArrayList<Variable> tempVariables = new ArrayList<>();
+        ArrayList<Variable> regexVariables = new ArrayList<>();
+
+        Matcher regexMatcher = VariableMatcher.REGEX_SYNTAX_PATTERN.matcher(command);
+        while (regexMatcher.find()) {
+            String fullName = regexMatcher.group(0);
+            String openingTag = regexMatcher.group(1);
+            String regex = regexMatcher.group(2);
+            String name = regexMatcher.group(3);
+            boolean continuous = fullName.endsWith("...");
+
+            try {
+                Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                throw new InvalidCommandException("Invalid pattern syntax for command \"" + command + "\". Variable (\"" + fullName + "\") has invalid regex: \"" + regex + "\"", e);
+            }
+
+            int startIndex = arguments.indexOf(fullName);
+            Range range = new Range(startIndex, continuous ? Integer.MAX_VALUE : startIndex);
+
+            Variable variable = new Variable(fullName, regex, name == null ? regex : name.replace("...", ""), range, openingTag.equals("["), continuous);
+            tempVariables.add(variable);
+            regexVariables.add(variable);
+        }
+
+        Matcher syntaxMatcher = VariableMatcher.SYNTAX_PATTERN.matcher(command);
+        while (syntaxMatcher.find()) {
+            String openingTag = syntaxMatcher.group(1);
+            String name = syntaxMatcher.group(2);
+            boolean continuous = name.endsWith("...");
+            boolean optional = openingTag.equals("[");
+
+            int startIndex = arguments.indexOf(syntaxMatcher.group(0));
+            Range range = new Range(startIndex, continuous ? Integer.MAX_VALUE : startIndex);
+            if (containsRange(tempVariables, range)) {
+                continue;
+            }
+
+            // Typed variables, e.g. "<amount:int>"
+            name = name.replace("...", "");
+            String type = "";
+            int typeIndex = name.indexOf(':');
+            if (typeIndex >= 0) {
+                type = name.substring(typeIndex + 1);
+                name = name.substring(0, typeIndex);
+            }
+
+            tempVariables.add(new Variable(syntaxMatcher.group(0), "", name, type, range, optional, continuous));
+        }
+
+        ArrayList<Variable> variables = new ArrayList<>();
+        for (Variable variable : tempVariables) {
+            /*
+             * Conditions:
+             * If the regex exists, make use of it
+             * Optional args can match something or nothing
+             * Varargs style arguments can match anything, including spaces
+             */
+
+            syntaxPattern = syntaxPattern.replace(variable.getFullName(), ((variable.isContinuous() ? ("(" + (variable.getRegex().isEmpty() ? ".+" : variable.getRegex()) + ")") : "([^\\s]+)") + (variable.isOptional() ? "?" : "")));
+            humanReadableSyntax = humanReadableSyntax.replace(variable.getFullName(), variable.getOpeningTag() + variable.getName() + (variable.isContinuous() ? "..." : "") + variable.getClosingTag());
+
+            variables.add(variable);
+        }
+        Collections.sort(variables);
+
+        for (String argument : arguments) {
+            // In case the actual command contains any regex
+            syntaxPattern = syntaxPattern.replace(argument, Pattern.quote(argument));
+        }
+
+        this.variables = Collections.unmodifiableList(variables);
+
+        // Slots are in the order the variables appear in the syntax, so values can be stored in (and read from) a plain array
+        Variable[] slots = new Variable[variables.size()];
+        Map<String, Integer> slotIndices = new HashMap<>();
+        boolean containsTypedVariables = false;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = variables.get(slots.length - 1 - i);
+            // Later variables take precedence if names are repeated, as with getVariableByName
+            slotIndices.put(slots[i].getName(), i);
+            containsTypedVariables |= slots[i].isTyped();
+        }
+        this.slots = slots;
+        this.slotIndices = slotIndices;
+        this.containsTypedVariables = containsTypedVariables;
+
+        this.regexVariables = Collections.unmodifiableList(regexVariables);
+        this.syntaxPattern = syntaxPattern;
+        this.humanReadableSyntax = humanReadableSyntax;
+        this.pattern = Pattern.compile("\\b" + syntaxPattern + "\\b", Pattern.CASE_INSENSITIVE);
+
+        // Used for sorting - commands without any variables are treated as though their first variable is after the last argument
+        int firstVariableIndex = arguments.size();
+        for (int i = 0; i < arguments.size(); i++) {
+            if (VariableMatcher.containsVariables(arguments.get(i)) || VariableMatcher.containsRegexVariables(arguments.get(i))) {
+                firstVariableIndex = i;
+                break;
+            }
+        }
+        this.firstVariableIndex = firstVariableIndex;
+        this.containsRegexVariables = !regexVariables.isEmpty();
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    public List<Variable> getVariables() {
+        return variables;
+    }
+
+    public List<Variable> getRegexVariables() {
+        return regexVariables;
+    }
+
+    /**
+     * Gets the number of variable slots in this syntax
+     *
+     * @return number of variables
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Gets the variable stored in a slot
+     *
+     * @param slot index of the variable, in the order variables appear in the syntax
+     * @return variable stored in the slot
+     */
+    public Variable getVariable(int slot) {
+        return slots[slot];
+    }
+
+    /**
+     * Gets the slot of a variable
+     *
+     * @param name name of the variable
+     * @return index of the variable, in the order variables appear in the syntax, or -1 if there is no variable with that name
+     */
+    public int getSlot(String name) {
+        Integer slot = slotIndices.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    public String getSyntaxPattern() {
+        return syntaxPattern;
+    }
+
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    public String getHumanReadableSyntax() {
+        return humanReadableSyntax;
+    }
+
+    public int getFirstVariableIndex() {
+        return firstVariableIndex;
+    }
+
+    public boolean containsVariables() {
+        return firstVariableIndex < arguments.size();
+    }
+
+    public boolean containsRegexVariables() {
+        return containsRegexVariables;
+    }
+
+    public boolean containsTypedVariables() {
+        return containsTypedVariables;
+    }
+
+    private static boolean containsRange(List<Variable> variables, Range range) {
+        for (Variable variable : variables) {
+            if (variable.getRange().equals(range)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int compareTo(CommandSyntax syntax) {
+        /*
+         * Conditions:
+         * Commands with a greater number of arguments get priority over those with less
+         * Commands with no variables get priority over those with variables
+         * Commands with variables later on get priority over commands with variables placed earlier in the syntax
+         *   e.g. "/command sub <hello>" is more important than "/command <hello>"
+         * Commands with regex variables get priority over those with normal variables in the same position
+         * Commands with typed variables get priority over those without, as they accept less input
+         * Finally, longer commands get priority over shorter commands
+         */
+        if (arguments.size() != syntax.arguments.size()) {
+            return syntax.arguments.size() - arguments.size();
+        }
+
+        if (firstVariableIndex != syntax.firstVariableIndex) {
+            return syntax.firstVariableIndex - firstVariableIndex;
+        }
+
+        if (containsRegexVariables != syntax.containsRegexVariables) {
+            return containsRegexVariables ? -1 : 1;
+        }
+
+        if (containsTypedVariables != syntax.containsTypedVariables) {
+            return containsTypedVariables ? -1 : 1;
+        }
+
+        if (command.length() != syntax.command.length()) {
+            return syntax.command.length() - command.length();
+        }
+        return command.compareTo(syntax.command);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import com.dsh105.command.exception.CommandRegistrationException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registration table of a {@link com.dsh105.command.CommandListener}, generated at compile time by the command table annotation
+ * processor (see the CommandManager-processor module)
+ * <p>
+ * Tables list every command handler declared by a listener along with everything needed to register it, so that registering the
+ * listener does not have to search through, validate and inspect its methods at runtime. Tables are named after the binary name of their
+ * listener, followed by {@link #SUFFIX}, e.g. "MyListener_CommandTable".
+ */
+public abstract class CommandTable {
+
+    public static final String SUFFIX = "_CommandTable";
+
+    private final Class<? extends CommandListener> listenerType;
+    private final List<Entry> entries;
+
+    protected CommandTable(Class<? extends CommandListener> listenerType, Entry... entries) {
+        this.listenerType = listenerType;
+        this.entries = Collections.unmodifiableList(Arrays.asList(entries));
+    }
+
+    /**
+     * Finds the generated table of a listener
+     *
+     * @param listenerType type of the listener
+     * @return registration table of the listener, or null if one was not generated for it
+     */
+    public static CommandTable find(Class<? extends CommandListener> listenerType) {
+        Class<?> tableType;
+        try {
+            tableType = Class.forName(listenerType.getName() + SUFFIX, true, listenerType.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+
+        if (!CommandTable.class.isAssignableFrom(tableType)) {
+            return null;
+        }
+
+        try {
+            CommandTable commandTable = (CommandTable) tableType.newInstance();
+            return commandTable.getListenerType().equals(listenerType) ? commandTable : null;
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new CommandRegistrationException("Failed to load the command table of " + listenerType.getCanonicalName(), e);
+        }
+    }
+
+    public Class<? extends CommandListener> getListenerType() {
+        return listenerType;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    protected static Command command(String command, String description, String[] permission, String[] aliases, String[] help, String[] usage, boolean includeInHelp) {
+        return new TableCommand(command, description, permission, aliases, help, usage, includeInHelp);
+    }
+
+    public enum Kind {
+
+        /**
+         * A method annotated with {@link com.dsh105.command.Command}
+         */
+        COMMAND,
+
+        /**
+         * A method annotated with {@link com.dsh105.command.ParentCommand}, executing the command of the listener itself
+         */
+        PARENT,
+
+        /**
+         * A method annotated with both {@link com.dsh105.command.Command} and {@link com.dsh105.command.NestedCommand}
+         */
+        NESTED
+    }
+
+    public static class Entry {
+
+        private final Kind kind;
+        private final String methodName;
+        private final Class<?>[] parameterTypes;
+        private final Class<?> senderType;
+        private final Command command;
+        private final String parentPrefix;
+        private final String[] parentAliases;
+        private final CommandInvoker invoker;
+
+        /**
+         * @param kind          how the command handler was declared
+         * @param methodName    name of the command handler method
+         * @param parameterType type of the event parameter of the command handler method
+         * @param senderType    type of sender accepted by the command handler
+         * @param command       command executed by the handler. For parent commands, this is the command of the listener itself
+         * @param parentPrefix  prefix of nested commands, otherwise null
+         * @param parentAliases aliases of the parent of nested commands, otherwise null
+         * @param invoker       direct invoker of the command handler, or null if the handler cannot be called directly (e.g. it is
+         *                      private)
+         */
+        public Entry(Kind kind, String methodName, Class<?> parameterType, Class<?> senderType, Command command, String parentPrefix, String[] parentAliases, CommandInvoker invoker) {
+            this(kind, methodName, new Class<?>[] {parameterType}, senderType, command, parentPrefix, parentAliases, invoker);
+        }
+
+        /**
+         * @param kind           how the command handler was declared
+         * @param methodName     name of the command handler method
+         * @param parameterTypes types of every parameter of the command handler method: the event, followed by any variables injected
+         *                       using {@link com.dsh105.command.Var}
+         * @param senderType     type of sender accepted by the command handler
+         * @param command        command executed by the handler. For parent commands, this is the command of the listener itself
+         * @param parentPrefix   prefix of nested commands, otherwise null
+         * @param parentAliases  aliases of the parent of nested commands, otherwise null
+         * @param invoker        direct invoker of the command handler, or null if the handler cannot be called directly (e.g. it is
+         *                       private or has injected variables)
+         */
+        public Entry(Kind kind, String methodName, Class<?>[] parameterTypes, Class<?> senderType, Command command, String parentPrefix, String[] parentAliases, CommandInvoker invoker) {
+            this.kind = kind;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            this.senderType = senderType;
+            this.command = command;
+            this.parentPrefix = parentPrefix;
+            this.parentAliases = parentAliases == null ? new String[0] : parentAliases;
+            this.invoker = invoker;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public Class<?> getParameterType() {
+            return parameterTypes[0];
+        }
+
+        public Class<?>[] getParameterTypes() {
+            return parameterTypes;
+        }
+
+        public Class<?> getSenderType() {
+            return senderType;
+        }
+
+        public Command getCommand() {
+            return command;
+        }
+
+        public String getParentPrefix() {
+            return parentPrefix;
+        }
+
+        public String[] getParentAliases() {
+            return parentAliases;
+        }
+
+        public CommandInvoker getInvoker() {
+            return invoker;
+        }
+
+        public Method getAccessor(Class<? extends CommandListener> listenerType) {
+            try {
+                return listenerType.getDeclaredMethod(methodName, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                throw new CommandRegistrationException("Command table of " + listenerType.getCanonicalName() + " is out of date: " + methodName + " no longer exists", e);
+            }
+        }
+    }
+
+    private static class TableCommand implements Command {
+
+        private final String command;
+        private final String description;
+        private final String[] permission;
+        private final String[] aliases;
+        private final String[] help;
+        private final String[] usage;
+        private final boolean includeInHelp;
+
+        private TableCommand(String command, String description, String[] permission, String[] aliases, String[] help, String[] usage, boolean includeInHelp) {
+            this.command = command;
+            this.description = description;
+            this.permission = permission;
+            this.aliases = aliases;
+            this.help = help;
+            this.usage = usage;
+            this.includeInHelp = includeInHelp;
+        }
+
+        @Override
+        public String command() {
+            return command;
+        }
+
+        @Override
+        public String description() {
+            return description;
+        }
+
+        @Override
+        public String[] permission() {
+            return permission;
+        }
+
+        @Override
+        public String[] aliases() {
+            return aliases;
+        }
+
+        @Override
+        public String[] help() {
+            return help;
+        }
+
+        @Override
+        public String[] usage() {
+            return usage;
+        }
+
+        @Override
+        public boolean includeInHelp() {
+            return includeInHelp;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Command.class;
+        }
+    }
+}
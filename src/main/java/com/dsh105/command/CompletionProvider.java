@@ -0,0 +1,40 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+
+/**
+ * Provides tab completions for a variable, e.g. "<player>" or "[world]"
+ * <p>
+ * Providers are registered by variable name using {@link com.dsh105.command.ICommandManager#registerCompletionProvider(String,
+ * CompletionProvider)}, and are used for every command with a variable of that name
+ */
+public interface CompletionProvider {
+
+    /**
+     * Completes a variable
+     *
+     * @param sender  sender requesting completions
+     * @param partial part of the variable that has been entered so far. May be empty
+     * @return possible values of the variable. Values that do not begin with the partial argument are ignored
+     */
+    List<String> complete(CommandSender sender, String partial);
+}
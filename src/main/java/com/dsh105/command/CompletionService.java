@@ -0,0 +1,235 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+
+/**
+ * Runs {@link com.dsh105.command.AsyncCompletionProvider}s for tab completion requests
+ * <p>
+ * Completions are run using the manager's asynchronous executor and their results are kept in a short-lived cache, keyed by the
+ * command entered so far, the variable being completed and the partial argument. Requests that are not cached yet return whatever is
+ * available within the completion timeout (nothing, by default), so the thread asking for completions is never held up for long - the
+ * results are there to be used as soon as the sender presses tab again.
+ * <p>
+ * Each sender has at most one completion running at a time: a request for a different partial argument (i.e. a newer keystroke)
+ * cancels the one still running.
+ */
+public class CompletionService {
+
+    public static final long DEFAULT_EXPIRY_SECONDS = 10;
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+    private final ICommandManager manager;
+    private final long expiryNanos;
+    private final CachedCompletions cache;
+    private final ConcurrentHashMap<CommandSender, CompletionRequest> requests = new ConcurrentHashMap<>();
+    private volatile long timeoutNanos;
+
+    public CompletionService(ICommandManager manager) {
+        this(manager, DEFAULT_EXPIRY_SECONDS, TimeUnit.SECONDS, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a new completion service
+     *
+     * @param manager     manager the service belongs to
+     * @param expiry      how long completions are cached for
+     * @param unit        unit of the expiry time
+     * @param maximumSize maximum number of completions cached
+     */
+    public CompletionService(ICommandManager manager, long expiry, TimeUnit unit, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be greater than zero");
+        }
+        this.manager = manager;
+        this.expiryNanos = unit.toNanos(expiry);
+        this.cache = new CachedCompletions(maximumSize);
+    }
+
+    public long getExpiry(TimeUnit unit) {
+        return unit.convert(expiryNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getTimeout(TimeUnit unit) {
+        return unit.convert(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets how long requests wait for completions that are not cached yet. Zero by default, i.e. requests never wait
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Completes a variable
+     *
+     * @param sender             sender requesting completions
+     * @param command            command entered so far, up to the variable being completed
+     * @param variableName       name of the variable being completed
+     * @param completionProvider provider of completions for the variable
+     * @param partial            part of the variable that has been entered so far
+     * @return completions for the variable. Completions from asynchronous providers are empty if they are not available in time
+     */
+    public List<String> complete(CommandSender sender, String command, String variableName, CompletionProvider completionProvider, String partial) {
+        if (!(completionProvider instanceof AsyncCompletionProvider)) {
+            return completionProvider.complete(sender, partial);
+        }
+
+        String key = command.toLowerCase() + '\0' + variableName + '\0' + partial.toLowerCase();
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CachedCompletion cached = cache.get(key);
+            if (cached != null && cached.expiresAt - now > 0) {
+                return cached.completions;
+            }
+        }
+
+        CompletionRequest request = new CompletionRequest(key, sender, completionProvider, partial);
+        CompletionRequest running = requests.put(sender, request);
+        if (running != null && !running.isDone()) {
+            if (running.key.equals(key)) {
+                // Still waiting on the same completion - no need to start it again
+                requests.replace(sender, request, running);
+                request = running;
+            } else {
+                running.cancel(true);
+            }
+        }
+
+        if (request != running) {
+            try {
+                manager.getAsyncExecutor().execute(request);
+            } catch (RejectedExecutionException e) {
+                requests.remove(sender, request);
+                return Collections.emptyList();
+            }
+        }
+
+        if (timeoutNanos > 0) {
+            try {
+                return request.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException | TimeoutException ignored) {
+                // Failures are logged once the request is done
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Cancels any completion still running for a sender, e.g. when they leave the server
+     *
+     * @param sender sender to cancel completions for
+     */
+    public void cancel(CommandSender sender) {
+        CompletionRequest running = requests.remove(sender);
+        if (running != null) {
+            running.cancel(true);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private class CompletionRequest extends FutureTask<List<String>> {
+
+        private final String key;
+        private final CommandSender sender;
+
+        private CompletionRequest(String key, final CommandSender sender, final CompletionProvider completionProvider, final String partial) {
+            super(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws Exception {
+                    List<String> completions = completionProvider.complete(sender, partial);
+                    return completions == null ? Collections.<String>emptyList() : Collections.unmodifiableList(completions);
+                }
+            });
+            this.key = key;
+            this.sender = sender;
+        }
+
+        @Override
+        protected void set(List<String> completions) {
+            // Cached before anyone waiting on the request sees the result. Results of cancelled requests may be incomplete
+            if (!isCancelled()) {
+                synchronized (cache) {
+                    cache.put(key, new CachedCompletion(completions, System.nanoTime() + expiryNanos));
+                }
+            }
+            super.set(completions);
+        }
+
+        @Override
+        protected void done() {
+            requests.remove(sender, this);
+            if (isCancelled()) {
+                return;
+            }
+
+            try {
+                get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                manager.getPlugin().getLogger().log(Level.WARNING, "Failed to complete \"" + key.replace('\0', ' ') + "\"", e.getCause());
+            }
+        }
+    }
+
+    private static class CachedCompletions extends LinkedHashMap<String, CachedCompletion> {
+
+        private final int maximumSize;
+
+        private CachedCompletions(int maximumSize) {
+            super(16, 0.75F, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCompletion> eldest) {
+            return size() > maximumSize;
+        }
+    }
+
+    private static class CachedCompletion {
+
+        private final List<String> completions;
+        private final long expiresAt;
+
+        private CachedCompletion(List<String> completions, long expiresAt) {
+            this.completions = completions;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
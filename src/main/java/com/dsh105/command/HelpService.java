@@ -17,24 +17,27 @@
 
 package com.dsh105.command;
 
+import com.dsh105.command.metrics.CommandTracer;
 import com.dsh105.commodus.StringUtil;
 import com.dsh105.commodus.paginator.Paginator;
 import com.dsh105.powermessage.core.PowerMessage;
 import com.dsh105.powermessage.markup.MarkupBuilder;
 import org.apache.commons.lang.WordUtils;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.util.ChatPaginator;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class HelpService {
 
+    // Distinct permission profiles are few in practice (default players, staff, etc.), so this is only a safeguard
+    private static final int MAXIMUM_CACHED_PROFILES = 64;
+
     private String pageNotFoundMessage = "Page %s does not exist";
     private String pageHeader;
 
@@ -44,6 +47,14 @@ public class HelpService {
     private boolean includePermissionListing = true;
     private boolean ignoreCommandAccess = true;
 
+    private final Map<CommandHandler, HelpEntry> entries = new LinkedHashMap<>();
+    // Changes are applied in batches, so that registering many listeners at once only updates the help pages once
+    private final Set<CommandHandler> pendingAdditions = new LinkedHashSet<>();
+    private final Set<CommandHandler> pendingRemovals = new HashSet<>();
+    private boolean updateScheduled;
+    // Published after every update, so that pages can be built and sent from any thread without holding the lock
+    private volatile Snapshot snapshot = new Snapshot(Collections.<HelpEntry>emptyList(), new int[0][], new String[0]);
+
     public HelpService(ICommandManager manager) {
         this.manager = manager;
         this.pageHeader = buildHeader();
@@ -82,28 +93,38 @@ public class HelpService {
         }
         String permission = StringUtil.combineArray(", ", commandHandler.getCommand().permission()).trim();
 
+        ArrayList<String> tooltipLines = new ArrayList<>();
+        for (String help : commandHandler.getCommand().help()) {
+            tooltipLines.add(new MarkupBuilder().withText(manager.getMessenger().getHighlightColour() + "• " + manager.getMessenger().getFormatColour() + WordUtils.wrap(help, 30, "\n", false)).build().getContent());
+        }
+
+        HelpEntry entry = new HelpEntry(commandHandler, commandName, permission, tooltipLines.toArray(StringUtil.EMPTY_STRING_ARRAY));
+        entries.put(commandHandler, entry);
+        paginator.add(entry.getMessage());
+    }
+
+    private PowerMessage buildMessage(HelpEntry entry, boolean includePermissionListing, Boolean access) {
         PowerMessage part = new MarkupBuilder()
                 .withText(manager.getMessenger().getHighlightColour().toString())
                 .withText("/")
-                .withText(commandName)
+                .withText(entry.getCommandName())
                 .withText(manager.getMessenger().getFormatColour().toString())
                 .withText(" - ")
-                .withText(commandHandler.getCommand().description())
-                .withText(permission.isEmpty() ? "" : " (" + permission + ")")
+                .withText(entry.getCommandHandler().getCommand().description())
+                .withText(!includePermissionListing || entry.getPermissionListing().isEmpty() ? "" : " (" + entry.getPermissionListing() + ")")
                 .build();
-        part.group().tooltip(manager.getMessenger().format(ChatColor.ITALIC + "{c1}Click to insert {c2}\"" + commandName + "\"{c2} into the chat window."));
-        part.suggest("/" + commandName);
+        part.group().tooltip(manager.getMessenger().format(ChatColor.ITALIC + "{c1}Click to insert {c2}\"" + entry.getCommandName() + "\"{c2} into the chat window."));
+        part.suggest("/" + entry.getCommandName());
 
-        if (commandHandler.getCommand().help().length > 0) {
-            ArrayList<String> tooltipLines = new ArrayList<>();
-            for (String help : commandHandler.getCommand().help()) {
-                tooltipLines.add(new MarkupBuilder().withText(manager.getMessenger().getHighlightColour() + "• " + manager.getMessenger().getFormatColour() + WordUtils.wrap(help, 30, "\n", false)).build().getContent());
-            }
-            if (!tooltipLines.isEmpty()) {
-                part.tooltip(tooltipLines.toArray(StringUtil.EMPTY_STRING_ARRAY));
-            }
+        ArrayList<String> tooltipLines = new ArrayList<>();
+        Collections.addAll(tooltipLines, entry.getTooltipLines());
+        if (access != null) {
+            tooltipLines.add(ChatColor.ITALIC + (access ? ChatColor.GREEN + "You may use this command" : ChatColor.RED + "You are not allowed to use this command"));
+        }
+        if (!tooltipLines.isEmpty()) {
+            part.tooltip(tooltipLines.toArray(StringUtil.EMPTY_STRING_ARRAY));
         }
-        paginator.add(part);
+        return part;
     }
 
     public ICommandManager getManager() {
@@ -111,6 +132,7 @@ public class HelpService {
     }
 
     public Paginator<PowerMessage> getPaginator() {
+        update();
         return paginator;
     }
 
@@ -128,10 +150,12 @@ public class HelpService {
 
     public void setIncludePermissionTooltip(boolean flag) {
         this.includePermissionTooltip = flag;
+        snapshot.pages.clear();
     }
 
     public void setIncludePermissionListing(boolean flag) {
         this.includePermissionListing = flag;
+        snapshot.pages.clear();
     }
 
     public boolean willIncludePermissionListing() {
@@ -144,66 +168,271 @@ public class HelpService {
 
     public void setIgnoreCommandAccess(boolean flag) {
         this.ignoreCommandAccess = flag;
+        snapshot.pages.clear();
     }
 
-    public void prepare() {
+    public synchronized void prepare() {
         paginator.clear();
+        entries.clear();
+        pendingAdditions.clear();
+        pendingRemovals.clear();
         for (CommandHandler commandHandler : manager.getAllRegisteredCommands()) {
             if (commandHandler.getCommand().includeInHelp()) {
                 prepare(commandHandler);
             }
         }
+        buildProfiles();
     }
 
-    public void sendPage(CommandSender sender, int pageNumber) {
-        Paginator p = this.paginator;
-        if (willIncludePermissionTooltip() || !willIncludePermissionListing() || !willIgnoreCommandAccess()) {
-            List<PowerMessage> messages = new ArrayList<>();
-            messages.addAll(paginator.getRaw());
-            Iterator<PowerMessage> iter = messages.iterator();
-            while (iter.hasNext()) {
-                PowerMessage powerMessage = iter.next();
-                Matcher matcher = Pattern.compile("(.+/(.+) - (?:.+))\\(([^\\s]+)\\)?").matcher(powerMessage.getContent());
-                if (matcher.find()) {
-                    if (!willIncludePermissionListing()) {
-                        powerMessage.clear().then(matcher.group(1));
-                    }
+    /**
+     * Queues the given command handlers to be added to the help pages
+     * <p>
+     * Queued changes are applied together on the next server tick, or as soon as the help pages are next used
+     *
+     * @param commandHandlers command handlers to add
+     */
+    public synchronized void add(Collection<CommandHandler> commandHandlers) {
+        for (CommandHandler commandHandler : commandHandlers) {
+            if (commandHandler.getCommand().includeInHelp()) {
+                pendingRemovals.remove(commandHandler);
+                pendingAdditions.add(commandHandler);
+            }
+        }
+        scheduleUpdate();
+    }
+
+    /**
+     * Queues the given command handlers to be removed from the help pages
+     * <p>
+     * Queued changes are applied together on the next server tick, or as soon as the help pages are next used
+     *
+     * @param commandHandlers command handlers to remove
+     */
+    public synchronized void remove(Collection<CommandHandler> commandHandlers) {
+        for (CommandHandler commandHandler : commandHandlers) {
+            pendingAdditions.remove(commandHandler);
+            pendingRemovals.add(commandHandler);
+        }
+        scheduleUpdate();
+    }
+
+    private void scheduleUpdate() {
+        if (updateScheduled || (pendingAdditions.isEmpty() && pendingRemovals.isEmpty())) {
+            return;
+        }
 
-                    if (willIncludePermissionTooltip() || !willIgnoreCommandAccess()) {
-                        String perm = matcher.group(3);
-                        if (perm != null && !perm.isEmpty()) {
-                            String[] permissions = perm.split(", ");
-                            tooltip:
-                            {
-                                boolean access = true;
-                                for (String permission : permissions) {
-                                    if (!VariableMatcher.containsVariables(permission) && permissions.length == 1) {
-                                        break tooltip;
-                                    }
-                                    access = sender.hasPermission(permission);
-                                }
-                                if (!access && !willIgnoreCommandAccess()) {
-                                    iter.remove();
-                                    continue;
-                                }
-                                if (willIncludePermissionTooltip()) {
-                                    powerMessage.tooltip(ChatColor.ITALIC + (access ? ChatColor.GREEN + "You may use this command" : ChatColor.RED + "You are not allowed to use this command"));
-                                }
-                            }
+        Plugin plugin = manager.getPlugin();
+        if (Bukkit.getServer() != null && plugin.isEnabled()) {
+            updateScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, new Runnable() {
+                @Override
+                public void run() {
+                    update();
+                }
+            });
+        }
+    }
+
+    /**
+     * Applies any queued changes to the help pages
+     */
+    public synchronized void update() {
+        updateScheduled = false;
+        if (pendingAdditions.isEmpty() && pendingRemovals.isEmpty()) {
+            return;
+        }
+
+        for (CommandHandler commandHandler : pendingRemovals) {
+            HelpEntry entry = entries.remove(commandHandler);
+            if (entry != null) {
+                paginator.remove(entry.getMessage());
+            }
+        }
+        for (CommandHandler commandHandler : pendingAdditions) {
+            if (!entries.containsKey(commandHandler)) {
+                prepare(commandHandler);
+            }
+        }
+        pendingAdditions.clear();
+        pendingRemovals.clear();
+
+        buildProfiles();
+    }
+
+    private void buildProfiles() {
+        List<String> profilePermissions = new ArrayList<>();
+        List<HelpEntry> entries = new ArrayList<>(this.entries.values());
+        int[][] permissionIndices = new int[entries.size()][];
+
+        Map<String, Integer> indices = new HashMap<>();
+        for (int e = 0; e < entries.size(); e++) {
+            HelpEntry entry = entries.get(e);
+            List<Integer> entryIndices = new ArrayList<>();
+            for (String permission : entry.getCommandHandler().getCommand().permission()) {
+                // Permissions with variables depend on the input, so access to them cannot be known in advance
+                if (permission.isEmpty() || VariableMatcher.containsVariables(permission) || VariableMatcher.containsRegexVariables(permission)) {
+                    continue;
+                }
+                Integer index = indices.get(permission);
+                if (index == null) {
+                    index = profilePermissions.size();
+                    indices.put(permission, index);
+                    profilePermissions.add(permission);
+                }
+                entryIndices.add(index);
+            }
+
+            permissionIndices[e] = new int[entryIndices.size()];
+            for (int i = 0; i < permissionIndices[e].length; i++) {
+                permissionIndices[e][i] = entryIndices.get(i);
+            }
+        }
+        this.snapshot = new Snapshot(entries, permissionIndices, profilePermissions.toArray(new String[profilePermissions.size()]));
+    }
+
+    /**
+     * Gets the permission profile of a sender, i.e. which of the permissions listed in the help pages they have
+     * <p>
+     * Senders with the same profile see exactly the same help pages
+     *
+     * @param sender sender to build a profile for
+     * @return permission profile of the given sender
+     */
+    protected BitSet getProfile(CommandSender sender) {
+        return getProfile(snapshot, sender);
+    }
+
+    private BitSet getProfile(Snapshot snapshot, CommandSender sender) {
+        String[] profilePermissions = snapshot.profilePermissions;
+        BitSet profile = new BitSet(profilePermissions.length);
+        if (willIncludePermissionTooltip() || !willIgnoreCommandAccess()) {
+            for (int i = 0; i < profilePermissions.length; i++) {
+                if (manager.hasPermission(sender, profilePermissions[i])) {
+                    profile.set(i);
+                }
+            }
+        }
+        return profile;
+    }
+
+    private Paginator<PowerMessage> getPages(Snapshot snapshot, BitSet profile) {
+        Map<BitSet, Paginator<PowerMessage>> profilePages = snapshot.pages;
+        Paginator<PowerMessage> pages = profilePages.get(profile);
+        if (pages == null) {
+            boolean checkAccess = willIncludePermissionTooltip() || !willIgnoreCommandAccess();
+            List<PowerMessage> messages = new ArrayList<>();
+            for (int e = 0; e < snapshot.entries.size(); e++) {
+                HelpEntry entry = snapshot.entries.get(e);
+                int[] permissionIndices = snapshot.permissionIndices[e];
+                Boolean access = null;
+                if (checkAccess && permissionIndices.length > 0) {
+                    access = true;
+                    for (int index : permissionIndices) {
+                        if (!profile.get(index)) {
+                            access = false;
+                            break;
                         }
                     }
                 }
+
+                if (access != null && !access && !willIgnoreCommandAccess()) {
+                    continue;
+                }
+                messages.add(buildMessage(entry, willIncludePermissionListing(), willIncludePermissionTooltip() ? access : null));
+            }
+            pages = new Paginator<>(paginator.getPerPage(), messages.toArray(new PowerMessage[messages.size()]));
+
+            if (profilePages.size() >= MAXIMUM_CACHED_PROFILES) {
+                profilePages.clear();
             }
-            p = new Paginator<>(paginator.getPerPage(), messages.toArray(new PowerMessage[0]));
+            profilePages.put(profile, pages);
         }
+        return pages;
+    }
+
+    public void sendPage(CommandSender sender, int pageNumber) {
+        CommandTracer tracer = manager.getTracer();
+        if (tracer == null || !tracer.isEnabled()) {
+            renderPage(sender, pageNumber);
+            return;
+        }
+
+        Object context = tracer.helpRenderStarted(sender, pageNumber);
+        long start = System.nanoTime();
+        boolean found = renderPage(sender, pageNumber);
+        tracer.helpRendered(context, sender, pageNumber, found, System.nanoTime() - start);
+    }
+
+    private boolean renderPage(CommandSender sender, int pageNumber) {
+        update();
+        // Read once, so that the profile and the pages always come from the same update
+        Snapshot snapshot = this.snapshot;
+        Paginator<PowerMessage> p = getPages(snapshot, getProfile(snapshot, sender));
 
         String pageHeader = this.pageHeader.replace("{pages}", "" + pageNumber).replace("{total}", "" + p.getPages());
 
         if (!p.exists(pageNumber)) {
             new MarkupBuilder().withText((manager.getResponsePrefix() != null && !manager.getResponsePrefix().isEmpty() ? manager.getResponsePrefix() + " " : "") + ChatColor.RESET + String.format(pageNotFoundMessage, "" + pageNumber)).build().send(sender);
-            return;
+            return false;
         }
         sender.sendMessage(pageHeader);
         p.sendPage(sender, pageNumber);
+        return true;
+    }
+
+    private class HelpEntry {
+
+        private final CommandHandler commandHandler;
+        private final String commandName;
+        private final String permissionListing;
+        private final String[] tooltipLines;
+        private final PowerMessage message;
+
+        private HelpEntry(CommandHandler commandHandler, String commandName, String permissionListing, String[] tooltipLines) {
+            this.commandHandler = commandHandler;
+            this.commandName = commandName;
+            this.permissionListing = permissionListing;
+            this.tooltipLines = tooltipLines;
+            this.message = buildMessage(this, true, null);
+        }
+
+        public CommandHandler getCommandHandler() {
+            return commandHandler;
+        }
+
+        public String getCommandName() {
+            return commandName;
+        }
+
+        public String getPermissionListing() {
+            return permissionListing;
+        }
+
+        public String[] getTooltipLines() {
+            return tooltipLines;
+        }
+
+        public PowerMessage getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Help entries as of a single update, along with the pages built from them for each permission profile
+     */
+    private static class Snapshot {
+
+        private final List<HelpEntry> entries;
+        // Indices of the profile permissions required by each entry
+        private final int[][] permissionIndices;
+        // Every distinct permission node that can be checked without any input, indexed by its position in a permission profile
+        private final String[] profilePermissions;
+        private final Map<BitSet, Paginator<PowerMessage>> pages = new ConcurrentHashMap<>();
+
+        private Snapshot(List<HelpEntry> entries, int[][] permissionIndices, String[] profilePermissions) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.permissionIndices = permissionIndices;
+            this.profilePermissions = profilePermissions;
+        }
     }
-}
\ No newline at end of file
+}
@@ -17,16 +17,21 @@
 
 package com.dsh105.command;
 
+import com.dsh105.command.metrics.CommandMetrics;
+import com.dsh105.command.metrics.CommandTracer;
+import com.dsh105.command.metrics.CommandWatchdog;
 import com.dsh105.command.registration.CommandRegistry;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
 import org.bukkit.plugin.Plugin;
 
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
-public interface ICommandManager extends CommandExecutor, Iterable<CommandHandler> {
+public interface ICommandManager extends CommandExecutor, TabCompleter, Iterable<CommandHandler> {
 
     Plugin getPlugin();
 
@@ -68,6 +73,40 @@ public interface ICommandManager extends CommandExecutor, Iterable<CommandHandle
 
     boolean shouldShowErrorMessage();
 
+    PermissionCache getPermissionCache();
+
+    void setPermissionCache(PermissionCache permissionCache);
+
+    boolean hasPermission(CommandSender sender, String permission);
+
+    Executor getAsyncExecutor();
+
+    CommandMetrics getMetrics();
+
+    CommandWatchdog getWatchdog();
+
+    void setWatchdog(CommandWatchdog watchdog);
+
+    CommandTracer getTracer();
+
+    void setTracer(CommandTracer tracer);
+
+    RegexGuard getRegexGuard();
+
+    long getRegexReadLimit();
+
+    void setRegexReadLimit(long maximumReads);
+
+    void registerCompletionProvider(String variableName, CompletionProvider completionProvider);
+
+    void unregisterCompletionProvider(String variableName);
+
+    CompletionProvider getCompletionProvider(String variableName);
+
+    CompletionService getCompletionService();
+
+    void setAsyncExecutor(Executor asyncExecutor);
+
     void refreshHelp();
 
     void register(CommandListener commandListener);
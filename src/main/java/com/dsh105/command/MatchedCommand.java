@@ -21,10 +21,12 @@ public class MatchedCommand {
 
     private String matchedLabel;
     private CommandHandler commandHandler;
+    private VariableMatcher variableMatcher;
 
-    protected MatchedCommand(String matchedLabel, CommandHandler commandHandler) {
+    protected MatchedCommand(String matchedLabel, CommandHandler commandHandler, VariableMatcher variableMatcher) {
         this.matchedLabel = matchedLabel;
         this.commandHandler = commandHandler;
+        this.variableMatcher = variableMatcher;
     }
 
     public String getMatchedLabel() {
@@ -34,4 +36,8 @@ public class MatchedCommand {
     public CommandHandler getCommandHandler() {
         return commandHandler;
     }
+
+    public VariableMatcher getVariableMatcher() {
+        return variableMatcher;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the results of permission checks for players, keyed by their unique ID and the permission node checked
+ * <p>
+ * Results expire after a set amount of time, and each player holds at most a set number of results (the least recently used are
+ * evicted first). Senders that are not players, such as the console, are never cached. Cached results should be invalidated whenever
+ * permissions are known to have changed; a {@link com.dsh105.command.PermissionCacheListener} takes care of players joining and
+ * leaving the server.
+ */
+public class PermissionCache {
+
+    public static final long DEFAULT_EXPIRY_SECONDS = 5;
+    public static final int DEFAULT_MAXIMUM_SIZE = 128;
+
+    private final ConcurrentHashMap<UUID, SenderPermissions> cache = new ConcurrentHashMap<>();
+    private final long expiryNanos;
+    private final int maximumSize;
+
+    public PermissionCache() {
+        this(DEFAULT_EXPIRY_SECONDS, TimeUnit.SECONDS, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a new permission cache
+     *
+     * @param expiry      how long results are kept for
+     * @param unit        unit of the expiry time
+     * @param maximumSize maximum number of results kept for each player
+     */
+    public PermissionCache(long expiry, TimeUnit unit, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be greater than zero");
+        }
+        this.expiryNanos = unit.toNanos(expiry);
+        this.maximumSize = maximumSize;
+    }
+
+    public long getExpiry(TimeUnit unit) {
+        return unit.convert(expiryNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public boolean hasPermission(CommandSender sender, String permission) {
+        if (!(sender instanceof Player)) {
+            return sender.hasPermission(permission);
+        }
+
+        UUID uniqueId = ((Player) sender).getUniqueId();
+        SenderPermissions permissions = cache.get(uniqueId);
+        if (permissions == null) {
+            permissions = new SenderPermissions(maximumSize);
+            SenderPermissions existing = cache.putIfAbsent(uniqueId, permissions);
+            if (existing != null) {
+                permissions = existing;
+            }
+        }
+
+        long now = System.nanoTime();
+        synchronized (permissions) {
+            CachedPermission cached = permissions.get(permission);
+            if (cached != null && cached.expiresAt - now > 0) {
+                return cached.value;
+            }
+        }
+
+        // Don't hold the lock while the permission plugin does its thing
+        boolean value = sender.hasPermission(permission);
+        synchronized (permissions) {
+            permissions.put(permission, new CachedPermission(value, now + expiryNanos));
+        }
+        return value;
+    }
+
+    public void invalidate(CommandSender sender) {
+        if (sender instanceof Player) {
+            invalidate(((Player) sender).getUniqueId());
+        }
+    }
+
+    public void invalidate(UUID uniqueId) {
+        cache.remove(uniqueId);
+    }
+
+    public void invalidate(UUID uniqueId, String permission) {
+        SenderPermissions permissions = cache.get(uniqueId);
+        if (permissions != null) {
+            synchronized (permissions) {
+                permissions.remove(permission);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    private static class SenderPermissions extends LinkedHashMap<String, CachedPermission> {
+
+        private final int maximumSize;
+
+        private SenderPermissions(int maximumSize) {
+            super(16, 0.75F, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPermission> eldest) {
+            return size() > maximumSize;
+        }
+    }
+
+    private static class CachedPermission {
+
+        private final boolean value;
+        private final long expiresAt;
+
+        private CachedPermission(boolean value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Invalidates cached permissions of players as they join or leave the server
+ * <p>
+ * Tab completions still running for players that leave are cancelled, so that they are not kept reachable until their completion
+ * providers return
+ */
+public class PermissionCacheListener implements Listener {
+
+    protected final ICommandManager manager;
+
+    public PermissionCacheListener(ICommandManager manager) {
+        this.manager = manager;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        invalidate(event);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        invalidate(event);
+
+        CompletionService completionService = manager.getCompletionService();
+        if (completionService != null) {
+            completionService.cancel(event.getPlayer());
+        }
+    }
+
+    private void invalidate(PlayerEvent event) {
+        PermissionCache permissionCache = manager.getPermissionCache();
+        if (permissionCache != null) {
+            permissionCache.invalidate(event.getPlayer());
+        }
+    }
+}
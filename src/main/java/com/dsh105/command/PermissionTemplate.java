@@ -0,0 +1,166 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A permission node compiled against the syntax of a command, e.g. "command.<variable>"
+ * <p>
+ * The permission is split into literal segments and variable slots when it is created, so resolving it for a matched command is a
+ * simple concatenation of the literals and the arguments entered for each variable, read straight from the slots of the matched
+ * syntax.
+ */
+public class PermissionTemplate {
+
+    protected static final Pattern OPTIONAL_VARIABLE_PATTERN = Pattern.compile("(?:\\[)([^\\]]+)(?:\\])");
+
+    private final String permission;
+    private final String[] literals;
+    private final int[] slots;
+    private final boolean valid;
+
+    public PermissionTemplate(String permission, CommandSyntax syntax) {
+        this.permission = permission;
+        this.valid = isValid(permission, syntax);
+
+        // Literal segments (Strings) and variable slots (Integers), in order
+        List<Object> parts = new ArrayList<>();
+        parts.add(permission);
+        for (Variable variable : syntax.getVariables()) {
+            Integer slot = syntax.getSlot(variable.getName());
+            List<Object> split = new ArrayList<>();
+            for (Object part : parts) {
+                if (!(part instanceof String)) {
+                    split.add(part);
+                    continue;
+                }
+
+                String literal = (String) part;
+                int start = 0;
+                int index;
+                while ((index = literal.indexOf(variable.getFullName(), start)) >= 0) {
+                    split.add(literal.substring(start, index));
+                    split.add(slot);
+                    start = index + variable.getFullName().length();
+                }
+                split.add(literal.substring(start));
+            }
+            parts = split;
+        }
+
+        // Merge adjacent literals so that literals[i] always precedes slots[i]
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof String) {
+                literal.append(part);
+            } else {
+                literals.add(literal.toString());
+                slots.add((Integer) part);
+                literal.setLength(0);
+            }
+        }
+        literals.add(literal.toString());
+
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.slots = new int[slots.size()];
+        for (int i = 0; i < this.slots.length; i++) {
+            this.slots[i] = slots.get(i);
+        }
+    }
+
+    private static boolean isValid(String permission, CommandSyntax syntax) {
+        Matcher optionalVariableMatcher = OPTIONAL_VARIABLE_PATTERN.matcher(permission);
+        while (optionalVariableMatcher.find()) {
+            if (getVariableByName(syntax, optionalVariableMatcher.group(1)) == null) {
+                // No variable = invalid permission = nuh-uh, don't use it
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Variable getVariableByName(CommandSyntax syntax, String name) {
+        for (Variable variable : syntax.getVariables()) {
+            if (variable.getName().equals(name)) {
+                return variable;
+            }
+        }
+        return null;
+    }
+
+    public String getPermission() {
+        return permission;
+    }
+
+    /**
+     * Gets whether this permission can be used with the syntax it was compiled against
+     * <p>
+     * Permissions that refer to a variable the command does not have are not valid
+     *
+     * @return true if this permission is valid
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    public boolean isEmpty() {
+        return permission.isEmpty();
+    }
+
+    /**
+     * Gets whether this permission depends on the arguments entered for any variables
+     *
+     * @return true if this permission contains variables
+     */
+    public boolean containsVariables() {
+        return slots.length > 0;
+    }
+
+    /**
+     * Resolves this permission for a matched command
+     *
+     * @param variableMatcher variable matcher of the matched command
+     * @return the permission with all variables replaced by the arguments they matched, or null if this permission is not valid
+     */
+    public String resolve(VariableMatcher variableMatcher) {
+        if (!valid) {
+            return null;
+        }
+
+        if (slots.length == 0) {
+            return literals[0];
+        }
+
+        String[] arguments = variableMatcher.getArguments();
+        StringBuilder builder = new StringBuilder(permission.length() + 16);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            String matchedArgument = slots[i] < 0 ? null : arguments[slots[i]];
+            if (matchedArgument != null) {
+                builder.append(matchedArgument);
+            }
+        }
+        return builder.append(literals[slots.length]).toString();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import com.dsh105.command.exception.MatchAbortedException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Limits the work done by regexes matched against command input
+ * <p>
+ * Patterns are compiled from command labels, including any regex variables they declare, and run against input entered by players.
+ * A pattern that backtracks catastrophically could otherwise stall the thread dispatching commands. Input is instead wrapped in a
+ * {@link java.lang.CharSequence} that counts the characters read from it, and the match is aborted once the limit is reached. Aborted
+ * matches are treated as though they did not match.
+ */
+public class RegexGuard {
+
+    /**
+     * Default number of characters a single match may read. Well-behaved patterns read each character of a command a handful of times
+     */
+    public static final long DEFAULT_MAXIMUM_READS = 100000;
+
+    /**
+     * Does not limit matches at all
+     */
+    public static final RegexGuard UNBOUNDED = new RegexGuard(0);
+
+    private final long maximumReads;
+
+    /**
+     * @param maximumReads number of characters a single match may read before it is aborted, or 0 to not limit matches
+     */
+    public RegexGuard(long maximumReads) {
+        if (maximumReads < 0) {
+            throw new IllegalArgumentException("Maximum reads cannot be negative");
+        }
+        this.maximumReads = maximumReads;
+    }
+
+    public long getMaximumReads() {
+        return maximumReads;
+    }
+
+    /**
+     * Bounds the input of a single match
+     *
+     * @param input input to bound
+     * @return input that throws a {@link com.dsh105.command.exception.MatchAbortedException} once too many characters have been read from
+     * it, or the input itself if matches are not limited
+     */
+    public CharSequence bound(CharSequence input) {
+        return maximumReads > 0 ? new BoundedCharSequence(input, maximumReads) : input;
+    }
+
+    /**
+     * Matches an entire input against a pattern, aborting the match if it reads too much of the input
+     *
+     * @param pattern pattern to match
+     * @param input   input to match
+     * @return true if the pattern matched the input. False if it did not, or if the match was aborted
+     */
+    public boolean matches(Pattern pattern, CharSequence input) {
+        try {
+            return pattern.matcher(bound(input)).matches();
+        } catch (MatchAbortedException e) {
+            aborted(pattern, input);
+            return false;
+        }
+    }
+
+    /**
+     * Called when a match is aborted
+     *
+     * @param pattern pattern that was being matched
+     * @param input   input it was matched against
+     */
+    protected void aborted(Pattern pattern, CharSequence input) {
+    }
+
+    private static class BoundedCharSequence implements CharSequence {
+
+        private final CharSequence sequence;
+        // Shared with any subsequences, as they are still part of the same match
+        private final BoundedCharSequence root;
+        private final long maximumReads;
+        private long reads;
+
+        private BoundedCharSequence(CharSequence sequence, long maximumReads) {
+            this.sequence = sequence;
+            this.root = this;
+            this.maximumReads = maximumReads;
+        }
+
+        private BoundedCharSequence(CharSequence sequence, BoundedCharSequence root) {
+            this.sequence = sequence;
+            this.root = root;
+            this.maximumReads = root.maximumReads;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++root.reads > maximumReads) {
+                throw new MatchAbortedException("Match aborted after reading " + maximumReads + " characters");
+            }
+            return sequence.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return sequence.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BoundedCharSequence(sequence.subSequence(start, end), root);
+        }
+
+        @Override
+        public String toString() {
+            return sequence.toString();
+        }
+    }
+}
@@ -20,7 +20,11 @@ package com.dsh105.command;
 import com.dsh105.command.exception.CommandInvocationException;
 import com.dsh105.command.exception.CommandRegistrationException;
 import com.dsh105.command.exception.InvalidCommandException;
+import com.dsh105.command.metrics.CommandMetrics;
+import com.dsh105.command.metrics.CommandTracer;
+import com.dsh105.command.metrics.CommandWatchdog;
 import com.dsh105.commodus.StringUtil;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
@@ -28,6 +32,11 @@ import org.bukkit.plugin.Plugin;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
 
 public abstract class SimpleCommandManager extends CommandMatcher implements ICommandManager {
 
@@ -41,19 +50,19 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
     private boolean suggestCommands;
     private boolean showErrorMessage = true;
     private boolean showDefaultUsageAsCommandSyntax;
+    private PermissionCache permissionCache;
+    private Executor asyncExecutor;
+    private final CommandMetrics metrics = new CommandMetrics(this);
+    private final Set<String> abortedPatterns = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private volatile CommandWatchdog watchdog;
+    private final Map<String, CompletionProvider> completionProviders = new ConcurrentHashMap<>();
+    private final CompletionService completionService = new CompletionService(this);
 
     /**
-     * List of all registered listeners
+     * Snapshot of all registered listeners, handlers and names. This is replaced as a whole whenever commands are mapped or
+     * unregistered (while holding the lock on this manager), so it can be read from any thread without locking
      */
-    private final HashSet<CommandListener> LISTENERS = new HashSet<>();
-
-    /**
-     * Maps command listeners to command handlers
-     */
-    private final HashMap<CommandListener, Set<CommandHandler>> COMMANDS = new HashMap<>();
-
-
-    private final HashMap<CommandListener, Set<String>> COMMAND_NAMES = new HashMap<>();
+    private volatile Registrations registrations = new Registrations(Collections.<CommandListener>emptySet(), Collections.<CommandListener, Set<CommandHandler>>emptyMap(), Collections.<CommandListener, Set<String>>emptyMap());
 
     public SimpleCommandManager(Plugin owningPlugin) {
         this(owningPlugin, "");
@@ -77,53 +86,45 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
 
     @Override
     public Set<CommandListener> getRegisteredListeners() {
-        return Collections.unmodifiableSet(LISTENERS);
+        return registrations.listeners;
     }
 
     @Override
     public Set<CommandHandler> getAllRegisteredCommands() {
-        Set<CommandHandler> commandHandlers = new HashSet<>();
-        for (Set<CommandHandler> listenerHandlers : getRegisteredCommands().values()) {
-            commandHandlers.addAll(listenerHandlers);
-        }
-        return Collections.unmodifiableSet(commandHandlers);
+        return registrations.allCommands;
     }
 
     @Override
     public Map<CommandListener, Set<CommandHandler>> getRegisteredCommands() {
-        return Collections.unmodifiableMap(COMMANDS);
+        return registrations.commands;
     }
 
     @Override
     public Set<CommandHandler> getRegisteredCommands(CommandListener parentListener) {
         Set<CommandHandler> commandHandlers = getRegisteredCommands().get(parentListener);
         if (commandHandlers == null) {
-            commandHandlers = new HashSet<>();
+            commandHandlers = Collections.emptySet();
         }
-        return Collections.unmodifiableSet(commandHandlers);
+        return commandHandlers;
     }
 
     @Override
     public Set<String> getAllRegisteredCommandNames() {
-        Set<String> commandNames = new HashSet<>();
-        for (Set<String> listenerHandlers : getRegisteredCommandNames().values()) {
-            commandNames.addAll(listenerHandlers);
-        }
-        return Collections.unmodifiableSet(commandNames);
+        return registrations.allCommandNames;
     }
 
     @Override
     public Set<String> getRegisteredCommandNames(CommandListener parentListener) {
         Set<String> commandNames = getRegisteredCommandNames().get(parentListener);
         if (commandNames == null) {
-            commandNames = new HashSet<>();
+            commandNames = Collections.emptySet();
         }
-        return Collections.unmodifiableSet(commandNames);
+        return commandNames;
     }
 
     @Override
     public Map<CommandListener, Set<String>> getRegisteredCommandNames() {
-        return Collections.unmodifiableMap(COMMAND_NAMES);
+        return registrations.commandNames;
     }
 
     @Override
@@ -138,7 +139,23 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
 
     @Override
     public boolean isValid(Method accessor, Class<? extends CommandEvent> type) {
-        return accessor.getReturnType().equals(boolean.class) && accessor.getParameterTypes().length == 1 && type.isAssignableFrom(accessor.getParameterTypes()[0]);
+        return accessor.getReturnType().equals(boolean.class) && hasValidParameters(accessor, type);
+    }
+
+    private boolean hasValidParameters(Method accessor, Class<? extends CommandEvent> type) {
+        Class<?>[] parameterTypes = accessor.getParameterTypes();
+        if (parameterTypes.length == 0 || !type.isAssignableFrom(parameterTypes[0])) {
+            return false;
+        }
+
+        // Any other parameters must be injected variables
+        Annotation[][] parameterAnnotations = accessor.getParameterAnnotations();
+        for (int i = 1; i < parameterTypes.length; i++) {
+            if (CommandHandler.getVar(parameterAnnotations[i]) == null) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -176,6 +193,104 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
         return showErrorMessage;
     }
 
+    @Override
+    public PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    @Override
+    public void setPermissionCache(PermissionCache permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
+    @Override
+    public boolean hasPermission(CommandSender sender, String permission) {
+        PermissionCache permissionCache = this.permissionCache;
+        return permissionCache != null ? permissionCache.hasPermission(sender, permission) : sender.hasPermission(permission);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            asyncExecutor = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    Bukkit.getScheduler().runTaskAsynchronously(owningPlugin, command);
+                }
+            };
+        }
+        return asyncExecutor;
+    }
+
+    /**
+     * Sets the executor used to run {@link com.dsh105.command.Async} command handlers. By default, these are run using the Bukkit
+     * scheduler
+     *
+     * @param asyncExecutor executor to run asynchronous command handlers with
+     */
+    @Override
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    @Override
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public CommandWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * Sets the watchdog used to report slow command handlers. Disabled (null) by default
+     *
+     * @param watchdog watchdog to report slow command handlers with, or null to disable it
+     */
+    @Override
+    public void setWatchdog(CommandWatchdog watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    @Override
+    protected void onMatchAborted(Pattern pattern, CharSequence input) {
+        if (metrics.isEnabled()) {
+            metrics.recordAbortedMatch();
+        }
+
+        // Once per pattern is enough - the same input could easily be entered again
+        if (abortedPatterns.add(pattern.pattern())) {
+            owningPlugin.getLogger().warning("Aborted matching a command of " + owningPlugin.getName() + " against input of length " + input.length() + " after reading " + getRegexReadLimit() + " characters. The pattern may backtrack excessively: " + pattern.pattern());
+        }
+    }
+
+    /**
+     * Registers a provider of tab completions for all variables with the given name
+     *
+     * @param variableName       name of the variable, e.g. "player" for "<player>"
+     * @param completionProvider provider of completions for the variable
+     */
+    @Override
+    public void registerCompletionProvider(String variableName, CompletionProvider completionProvider) {
+        completionProviders.put(variableName, completionProvider);
+    }
+
+    @Override
+    public void unregisterCompletionProvider(String variableName) {
+        completionProviders.remove(variableName);
+    }
+
+    @Override
+    public CompletionProvider getCompletionProvider(String variableName) {
+        return completionProviders.get(variableName);
+    }
+
+    @Override
+    public CompletionService getCompletionService() {
+        return completionService;
+    }
+
     public boolean willShowDefaultUsageAsCommandSyntax() {
         return showDefaultUsageAsCommandSyntax;
     }
@@ -196,11 +311,18 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
      */
 
     @Override
-    public void register(CommandListener commandListener) {
-        if (LISTENERS.contains(commandListener)) {
+    public synchronized void register(CommandListener commandListener) {
+        if (registrations.listeners.contains(commandListener)) {
             throw new CommandRegistrationException("CommandListener already registered!");
         }
 
+        CommandTable commandTable = CommandTable.find(commandListener.getClass());
+        if (commandTable != null) {
+            // Handlers were found and validated at compile time - no need to search for them again
+            register(commandListener, commandTable);
+            return;
+        }
+
         ArrayList<CommandHandler> registrationQueue = new ArrayList<>();
 
         // Parent command info used in nested commands
@@ -235,7 +357,29 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
         if (!registrationQueue.isEmpty()) {
             // Map commands to their appropriate destinations
             mapCommands(commandListener, registrationQueue);
-            refreshHelp();
+        }
+    }
+
+    private void register(CommandListener commandListener, CommandTable commandTable) {
+        ArrayList<CommandHandler> registrationQueue = new ArrayList<>();
+        ArrayList<CommandHandler> nestedRegistrationQueue = new ArrayList<>();
+
+        for (CommandTable.Entry entry : commandTable.getEntries()) {
+            Method accessor = entry.getAccessor(commandTable.getListenerType());
+            if (entry.getKind() == CommandTable.Kind.NESTED) {
+                Command command = buildNestedCommand(entry.getParentPrefix(), entry.getCommand(), entry.getParentAliases());
+                nestedRegistrationQueue.add(new CommandHandler(commandListener, commandListener, command, accessor, entry.getSenderType(), entry.getInvoker()));
+            } else {
+                registrationQueue.add(new CommandHandler(commandListener, commandListener, entry.getCommand(), accessor, entry.getSenderType(), entry.getInvoker()));
+            }
+        }
+
+        // Same order as a normal registration - nested commands first
+        if (!nestedRegistrationQueue.isEmpty()) {
+            mapCommands(commandListener, nestedRegistrationQueue);
+        }
+        if (!registrationQueue.isEmpty()) {
+            mapCommands(commandListener, registrationQueue);
         }
     }
 
@@ -245,7 +389,7 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
     }
 
     @Override
-    public void nestCommandsIn(CommandListener destination, CommandListener origin, boolean includeAll) {
+    public synchronized void nestCommandsIn(CommandListener destination, CommandListener origin, boolean includeAll) {
         ArrayList<CommandHandler> registrationQueue = new ArrayList<>();
 
         // Retrieve the prefix for this nested command
@@ -282,47 +426,82 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
 
         if (!registrationQueue.isEmpty()) {
             mapCommands(destination, registrationQueue);
-            refreshHelp();
         }
     }
 
     @Override
-    public void unregister(CommandListener commandListener) {
+    public synchronized void unregister(CommandListener commandListener) {
+        Registrations registrations = this.registrations;
+
         // This will also remove any nested commands that have been registered to this listener
-        LISTENERS.remove(commandListener);
-        COMMANDS.remove(commandListener);
-        COMMAND_NAMES.remove(commandListener);
-        for (CommandHandler commandHandler : getRegisteredCommands(commandListener)) {
-            // Unregister from Bukkit so that this command is no longer fired
+        Set<CommandListener> listeners = new HashSet<>(registrations.listeners);
+        listeners.remove(commandListener);
+        Map<CommandListener, Set<CommandHandler>> commands = new HashMap<>(registrations.commands);
+        Set<CommandHandler> removed = commands.remove(commandListener);
+        Map<CommandListener, Set<String>> commandNames = new HashMap<>(registrations.commandNames);
+        commandNames.remove(commandListener);
+        this.registrations = new Registrations(listeners, commands, commandNames);
+
+        if (removed != null) {
+            getCommandIndex().remove(removed);
+            getSuggestionIndex().remove(removed);
+            if (getHelpService() != null) {
+                getHelpService().remove(removed);
+            }
             if (getRegistry() != null) {
-                getRegistry().unregister(commandHandler.getCommand().command().split("\\s")[0]);
+                // Other listeners may still have commands under the same labels (e.g. nested commands)
+                Set<String> labels = getRootLabels(removed);
+                labels.removeAll(getRootLabels(this.registrations.allCommands));
+                for (String label : labels) {
+                    // Unregister from Bukkit so that this command is no longer fired
+                    getRegistry().unregister(label);
+                }
             }
         }
+    }
 
-        refreshHelp();
+    private static Set<String> getRootLabels(Collection<CommandHandler> commandHandlers) {
+        // Same labels as those registered with Bukkit
+        Set<String> labels = new HashSet<>();
+        for (CommandHandler commandHandler : commandHandlers) {
+            labels.add(commandHandler.getCommandName().split("\\s")[0].toLowerCase());
+            for (String alias : commandHandler.getCommand().aliases()) {
+                labels.add(alias.split("\\s")[0].toLowerCase());
+            }
+        }
+        return labels;
     }
 
     private void mapCommands(CommandListener commandListener, Collection<CommandHandler> registrationQueue) {
-        if (LISTENERS.contains(commandListener)) {
-            LISTENERS.add(commandListener);
-        }
+        Registrations registrations = this.registrations;
 
-        Set<CommandHandler> existing = COMMANDS.get(commandListener);
-        if (existing == null) {
-            existing = new HashSet<>();
+        Set<CommandHandler> existing = new HashSet<>(getRegisteredCommands(commandListener));
+        ArrayList<CommandHandler> added = new ArrayList<>();
+        for (CommandHandler commandHandler : registrationQueue) {
+            if (existing.add(commandHandler)) {
+                added.add(commandHandler);
+            }
         }
-        existing.addAll(registrationQueue);
-        COMMANDS.put(commandListener, existing);
+        getCommandIndex().add(added);
+        getSuggestionIndex().add(added);
+        Map<CommandListener, Set<CommandHandler>> commands = new HashMap<>(registrations.commands);
+        commands.put(commandListener, Collections.unmodifiableSet(existing));
 
-        Set<String> existingNames = COMMAND_NAMES.get(commandListener);
-        if (existingNames == null) {
-            existingNames = new HashSet<>();
-        }
+        Set<String> existingNames = new HashSet<>(getRegisteredCommandNames(commandListener));
         for (CommandHandler commandHandler : registrationQueue) {
             existingNames.add(commandHandler.getCommandName());
             Collections.addAll(existingNames, commandHandler.getCommand().aliases());
         }
-        COMMAND_NAMES.put(commandListener, existingNames);
+        Map<CommandListener, Set<String>> commandNames = new HashMap<>(registrations.commandNames);
+        commandNames.put(commandListener, Collections.unmodifiableSet(existingNames));
+
+        Set<CommandListener> listeners = new HashSet<>(registrations.listeners);
+        listeners.add(commandListener);
+        this.registrations = new Registrations(listeners, commands, commandNames);
+
+        if (getHelpService() != null) {
+            getHelpService().add(added);
+        }
 
         if (getRegistry() != null) {
             getRegistry().register(registrationQueue);
@@ -330,7 +509,11 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
     }
 
     private CommandHandler buildNestedCommand(CommandListener handlerOrigin, CommandListener registerTo, final String parentPrefix, Method methodOrigin, final Command command, final String... parentAliases) {
-        return new CommandHandler(handlerOrigin, registerTo, new Command() {
+        return new CommandHandler(handlerOrigin, registerTo, buildNestedCommand(parentPrefix, command, parentAliases), methodOrigin);
+    }
+
+    private Command buildNestedCommand(final String parentPrefix, final Command command, final String... parentAliases) {
+        return new Command() {
             @Override
             public String command() {
                 return parentPrefix + command.command();
@@ -382,7 +565,7 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
             public Class<? extends Annotation> annotationType() {
                 return command.annotationType();
             }
-        }, methodOrigin);
+        };
     }
 
     private void ensureValidity(CommandListener commandListener, Method method) {
@@ -392,13 +575,14 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
                 requirements.append("must return a BOOLEAN");
             }
 
-            if (!(method.getParameterTypes().length == 1 && CommandEvent.class.isAssignableFrom(method.getParameterTypes()[0]))) {
+            if (!hasValidParameters(method, CommandEvent.class)) {
                 if (requirements.length() > 0) {
                     requirements.append(" and ");
                 }
-                requirements.append("can only have one parameter (")
+                requirements.append("must have one parameter (")
                             .append(CommandEvent.class.getCanonicalName())
-                            .append(")");
+                            .append("), optionally followed by variables annotated with @")
+                            .append(Var.class.getSimpleName());
             }
 
             throw new InvalidCommandException(String.format(INVALID_COMMAND_WARNING, owningPlugin.getName(), commandListener.getClass().getCanonicalName(), method.getName(), requirements.toString()));
@@ -410,17 +594,76 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
         return onCommand(new CommandEvent<>(this, label, sender, args));
     }
 
+    @Override
+    public List<String> onTabComplete(final CommandSender sender, org.bukkit.command.Command command, String alias, String[] args) {
+        // The last argument is the one being completed
+        List<String> tokens = new ArrayList<>();
+        tokens.add(alias);
+        for (int i = 0; i < args.length - 1; i++) {
+            if (!args[i].isEmpty()) {
+                tokens.add(args[i]);
+            }
+        }
+        String partial = args.length > 0 ? args[args.length - 1] : "";
+
+        CommandIndex.Completions completions = getCommandIndex().complete(tokens, partial, new CommandIndex.Filter() {
+            @Override
+            public boolean accept(CommandHandler commandHandler) {
+                if (!commandHandler.isSenderAccepted(sender)) {
+                    return false;
+                }
+                for (String permission : commandHandler.getStaticPermissions()) {
+                    if (!hasPermission(sender, permission)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }, getRegexGuard());
+
+        LinkedHashSet<String> results = new LinkedHashSet<>(completions.getLiterals());
+        boolean provided = true;
+        String enteredCommand = StringUtil.combine(" ", tokens);
+        for (String variableName : completions.getVariables()) {
+            CompletionProvider completionProvider = getCompletionProvider(variableName);
+            if (completionProvider == null) {
+                provided = false;
+                continue;
+            }
+
+            List<String> values = completionService.complete(sender, enteredCommand, variableName, completionProvider, partial);
+            if (values != null) {
+                for (String value : values) {
+                    if (value.regionMatches(true, 0, partial, 0, partial.length())) {
+                        results.add(value);
+                    }
+                }
+            }
+        }
+
+        if (results.isEmpty() && !provided) {
+            // Nothing else to go on - leave it to the default completions (online players)
+            return null;
+        }
+        return new ArrayList<>(results);
+    }
+
     @Override
     public <T extends CommandSender> boolean onCommand(CommandEvent<T> event) {
+        boolean recordMetrics = metrics.isEnabled();
+        long matchStart = recordMetrics ? System.nanoTime() : 0;
+
         // Match a command for this event
-        MatchedCommand matchedCommand = matchCommand(event.input());
+        MatchedCommand matchedCommand = matchCommand(event.getCommandInput());
+        long matchEnd = recordMetrics ? System.nanoTime() : 0;
         if (matchedCommand != null) {
             CommandHandler handler = matchedCommand.getCommandHandler();
-            Command parent = handler.getParentCommand();
-            Command command = handler.getCommand();
+            if (recordMetrics) {
+                handler.getMetrics().recordMatch(matchEnd - matchStart);
+            }
 
-            // Pair up a variable matcher that utilises the executed command and syntax pattern
-            event.setVariableMatcher(new VariableMatcher(matchedCommand.getMatchedLabel(), event.input()));
+            // Pair up the variable matcher that utilises the executed command and syntax pattern
+            event.setVariableMatcher(matchedCommand.getVariableMatcher());
 
             // Ensure that the command handler accepts this type of CommandSender
             if (!handler.isSenderAccepted(event.sender())) {
@@ -428,78 +671,145 @@ public abstract class SimpleCommandManager extends CommandMatcher implements ICo
                 return true;
             }
 
-            // Build a permission list, inclusive of all parent permissions
-            List<String> permissions = buildPermissionList(command, event.getVariableMatcher());
-            if (parent != null) {
-                permissions.addAll(buildPermissionList(parent, event.getVariableMatcher()));
-            }
-
-            if (permissions.size() <= 0 || event.canPerform(permissions.toArray(StringUtil.EMPTY_STRING_ARRAY))) {
-                try {
-                    // Execute the command handler
-                    boolean executionResult = (boolean) handler.getAccessor().invoke(handler.getParent(), event);
-                    if (!executionResult) {
-                        // The handler didn't accept this command - deal with sending usage info
-                        if (willShowDefaultUsageAsCommandSyntax()) {
-                            // Show the command syntax
-                            event.respond(ResponseLevel.SEVERE, event.getVariableMatcher().getHumanReadableSyntax());
-                        } else {
-                            String[] usage;
-                            String[] def = {DEFAULT_USAGE};
-                            if (Arrays.equals(command.usage(), def)) {
-                                usage = parent == null ? def : parent.usage();
-                            } else {
-                                usage = command.usage();
-                            }
-                            for (String part : usage) {
-                                event.respond(part);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    if (shouldShowErrorMessage()) {
-                        event.respond(ResponseLevel.SEVERE, messenger.getErrorMessage());
-                    }
-                    throw new CommandInvocationException("Unhandled exception executing \"" + event.input() + "\" in " + owningPlugin.getName(), e);
+            // Resolve the permissions of this command, inclusive of all parent permissions
+            String[] permissions = handler.getPermissions(event.getVariableMatcher());
+            boolean permitted = permissions.length <= 0 || event.canPerform(permissions);
+            if (recordMetrics) {
+                handler.getMetrics().recordPermissionCheck(System.nanoTime() - matchEnd, !permitted);
+            }
+
+            if (permitted) {
+                if (handler.isAsync()) {
+                    executeAsync(handler, event);
+                } else {
+                    execute(handler, event);
                 }
             }
             return true;
         }
 
+        if (recordMetrics) {
+            metrics.recordNotFound(matchEnd - matchStart);
+        }
+
         // Command wasn't found :(
         event.respond(ResponseLevel.SEVERE, messenger.getCommandNotFoundMessage());
 
         if (willSuggestCommands()) {
-            // Find any suggestions from registered commands
-            ArrayList<String> possibleSuggestions = new ArrayList<>();
-            for (CommandHandler handler : matchCommands(event.command(), true, true)) {
-                possibleSuggestions.add(handler.getCommandName());
+            // Find the closest registered commands, keeping the rest of the input as it was entered
+            ArrayList<String> suggestions = new ArrayList<>();
+            for (String suggestion : getSuggestionIndex().suggest(event.command())) {
+                suggestions.add(suggestion + event.input().substring(event.command().length()));
             }
 
-            Suggestion suggestion = new Suggestion(event.command(), possibleSuggestions);
-            if (suggestion.getSuggestions().size() > 0) {
-                event.respond(ResponseLevel.SEVERE, "Did you mean: " + ChatColor.ITALIC + StringUtil.combine(ChatColor.RESET + "{c1}, " + ChatColor.ITALIC, suggestion.getSuggestions()));
+            if (suggestions.size() > 0) {
+                event.respond(ResponseLevel.SEVERE, "Did you mean: " + ChatColor.ITALIC + StringUtil.combine(ChatColor.RESET + "{c1}, " + ChatColor.ITALIC, suggestions));
             }
         }
         return true;
     }
 
-    private ArrayList<String> buildPermissionList(Command command, VariableMatcher variableMatcher) {
-        ArrayList<String> permissions = new ArrayList<>();
+    private void execute(CommandHandler handler, CommandEvent<?> event) {
+        Command parent = handler.getParentCommand();
+        Command command = handler.getCommand();
+
+        boolean recordMetrics = metrics.isEnabled();
+        CommandTracer tracer = getTracer();
+        boolean trace = tracer != null && tracer.isEnabled();
+        Object traceContext = trace ? tracer.executionStarted(handler, event) : null;
+        long start = recordMetrics || trace ? System.nanoTime() : 0;
+        boolean failed = false;
+        CommandWatchdog watchdog = this.watchdog;
+        CommandWatchdog.Watch watch = watchdog != null ? watchdog.watch(handler, event) : null;
+        try {
+            // Execute the command handler
+            boolean executionResult = handler.invoke(event);
+            if (!executionResult) {
+                // The handler didn't accept this command - deal with sending usage info
+                if (willShowDefaultUsageAsCommandSyntax()) {
+                    // Show the command syntax
+                    event.respond(ResponseLevel.SEVERE, event.getVariableMatcher().getHumanReadableSyntax());
+                } else {
+                    String[] usage;
+                    String[] def = {DEFAULT_USAGE};
+                    if (Arrays.equals(command.usage(), def)) {
+                        usage = parent == null ? def : parent.usage();
+                    } else {
+                        usage = command.usage();
+                    }
+                    for (String part : usage) {
+                        event.respond(part);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            failed = true;
+            if (shouldShowErrorMessage()) {
+                event.respond(ResponseLevel.SEVERE, messenger.getErrorMessage());
+            }
+            throw new CommandInvocationException("Unhandled exception executing \"" + event.input() + "\" in " + owningPlugin.getName(), e);
+        } finally {
+            if (watch != null) {
+                watch.finish();
+            }
+            if (recordMetrics || trace) {
+                long end = System.nanoTime();
+                if (recordMetrics) {
+                    handler.getMetrics().recordInvocation(end - start, failed);
+                }
+                if (trace) {
+                    tracer.commandExecuted(traceContext, handler, event, failed, end - start);
+                }
+            }
+        }
+    }
 
-        for (String permission : command.permission()) {
-            // Replace any variables from the command event
-            String matchedPermission = variableMatcher.replaceVariables(permission);
+    private void executeAsync(final CommandHandler handler, final CommandEvent<?> event) {
+        try {
+            getAsyncExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        execute(handler, event);
+                    } catch (CommandInvocationException e) {
+                        // Nothing else will catch it on this thread
+                        owningPlugin.getLogger().log(Level.SEVERE, e.getMessage(), e.getCause());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (shouldShowErrorMessage()) {
+                event.respond(ResponseLevel.SEVERE, messenger.getErrorMessage());
+            }
+            throw new CommandInvocationException("Failed to schedule \"" + event.input() + "\" in " + owningPlugin.getName(), e);
+        }
+    }
+
+    private static class Registrations {
+
+        private final Set<CommandListener> listeners;
+        private final Map<CommandListener, Set<CommandHandler>> commands;
+        private final Map<CommandListener, Set<String>> commandNames;
+        private final Set<CommandHandler> allCommands;
+        private final Set<String> allCommandNames;
 
-            // Remove all unwanted periods at the end of permission nodes
-            while (permission.endsWith(".")) {
-                permission = permission.substring(0, permission.length() - 1);
+        private Registrations(Set<CommandListener> listeners, Map<CommandListener, Set<CommandHandler>> commands, Map<CommandListener, Set<String>> commandNames) {
+            this.listeners = Collections.unmodifiableSet(listeners);
+            this.commands = Collections.unmodifiableMap(commands);
+            this.commandNames = Collections.unmodifiableMap(commandNames);
+
+            Set<CommandHandler> allCommands = new HashSet<>();
+            for (Set<CommandHandler> listenerHandlers : commands.values()) {
+                allCommands.addAll(listenerHandlers);
             }
-            if (matchedPermission != null) {
-                permissions.add(matchedPermission);
+
+            Set<String> allCommandNames = new HashSet<>();
+            for (Set<String> listenerNames : commandNames.values()) {
+                allCommandNames.addAll(listenerNames);
             }
-        }
 
-        return permissions;
+            this.allCommands = Collections.unmodifiableSet(allCommands);
+            this.allCommandNames = Collections.unmodifiableSet(allCommandNames);
+        }
     }
-}
\ No newline at end of file
+}
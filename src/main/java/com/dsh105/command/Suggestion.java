@@ -24,6 +24,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * @deprecated only suggests commands that the message starts with. Use {@link com.dsh105.command.SuggestionIndex} instead, which
+ * also catches typos
+ */
+@Deprecated
 public class Suggestion {
 
     private String message;
@@ -0,0 +1,266 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import java.util.*;
+
+/**
+ * BK-tree over the first word of the labels (names and aliases) of all indexed command handlers, used to suggest commands for
+ * mistyped input
+ * <p>
+ * Words are compared using their Damerau-Levenshtein distance, so missing, extra, substituted and swapped characters each count as a
+ * single edit (e.g. "exmaple" is one edit away from "example"). As the distance is a metric, searching for words within a small
+ * distance only visits a small part of the tree rather than comparing the input to every registered label.
+ * <p>
+ * Removed words are kept in the tree to preserve its structure until they make up more than half of it, at which point the tree is
+ * rebuilt.
+ */
+public class SuggestionIndex {
+
+    public static final int DEFAULT_MAXIMUM_SUGGESTIONS = 3;
+
+    private Node root;
+    private int size;
+    private int removed;
+
+    public synchronized void add(Collection<CommandHandler> commandHandlers) {
+        for (CommandHandler commandHandler : commandHandlers) {
+            for (String word : getWords(commandHandler)) {
+                add(word, 1);
+            }
+        }
+    }
+
+    public synchronized void remove(Collection<CommandHandler> commandHandlers) {
+        for (CommandHandler commandHandler : commandHandlers) {
+            for (String word : getWords(commandHandler)) {
+                Node node = find(word);
+                if (node != null && node.count > 0 && --node.count == 0) {
+                    size--;
+                    removed++;
+                }
+            }
+        }
+
+        if (removed > size) {
+            rebuild();
+        }
+    }
+
+    public synchronized void clear() {
+        root = null;
+        size = 0;
+        removed = 0;
+    }
+
+    /**
+     * Suggests registered commands similar to the given command
+     *
+     * @param command command to find suggestions for, e.g. "exmaple"
+     * @return up to {@link #DEFAULT_MAXIMUM_SUGGESTIONS} suggestions, closest first. Up to one edit is allowed for commands of four
+     * characters or less, and up to two edits for anything longer
+     */
+    public List<String> suggest(String command) {
+        return suggest(command, command.length() <= 4 ? 1 : 2, DEFAULT_MAXIMUM_SUGGESTIONS);
+    }
+
+    /**
+     * Suggests registered commands similar to the given command
+     *
+     * @param command         command to find suggestions for, e.g. "exmaple"
+     * @param maximumDistance maximum number of edits between the command and a suggestion
+     * @param limit           maximum number of suggestions to return
+     * @return suggestions in order of their distance from the command, then alphabetically. The command itself is never suggested
+     */
+    public synchronized List<String> suggest(String command, int maximumDistance, int limit) {
+        String word = command.toLowerCase();
+        if (root == null || word.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final Map<String, Integer> distances = new HashMap<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            int distance = distance(word, node.word);
+            if (distance > 0 && distance <= maximumDistance && node.count > 0) {
+                distances.put(node.word, distance);
+            }
+
+            // Only children within the maximum distance of this node can be within the maximum distance of the command
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maximumDistance) {
+                    queue.add(child.getValue());
+                }
+            }
+        }
+
+        ArrayList<String> suggestions = new ArrayList<>(distances.keySet());
+        Collections.sort(suggestions, new Comparator<String>() {
+            @Override
+            public int compare(String word1, String word2) {
+                int distanceComparison = distances.get(word1) - distances.get(word2);
+                return distanceComparison != 0 ? distanceComparison : word1.compareTo(word2);
+            }
+        });
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    private void add(String word, int count) {
+        if (root == null) {
+            root = new Node(word);
+            root.count = count;
+            size++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                if (node.count == 0) {
+                    // Word was removed earlier and is now back again
+                    size++;
+                    removed--;
+                }
+                node.count += count;
+                return;
+            }
+
+            Node child = node.children.get(distance);
+            if (child == null) {
+                child = new Node(word);
+                child.count = count;
+                node.children.put(distance, child);
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private Node find(String word) {
+        Node node = root;
+        while (node != null) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return node;
+            }
+            node = node.children.get(distance);
+        }
+        return null;
+    }
+
+    private void rebuild() {
+        ArrayList<Node> nodes = new ArrayList<>();
+        if (root != null) {
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                if (node.count > 0) {
+                    nodes.add(node);
+                }
+                queue.addAll(node.children.values());
+            }
+        }
+
+        clear();
+        for (Node node : nodes) {
+            add(node.word, node.count);
+        }
+    }
+
+    private static Set<String> getWords(CommandHandler commandHandler) {
+        // Handlers with several labels starting with the same word only count once for that word
+        Set<String> words = new HashSet<>();
+        for (CommandSyntax syntax : commandHandler.getSyntaxes()) {
+            words.add(syntax.getArguments().get(0).toLowerCase());
+        }
+        return words;
+    }
+
+    /**
+     * Calculates the Damerau-Levenshtein distance between two strings: the minimum number of insertions, deletions, substitutions and
+     * transpositions of adjacent characters needed to turn one into the other
+     *
+     * @param source first string
+     * @param target second string
+     * @return distance between the two strings
+     */
+    public static int distance(String source, String target) {
+        int sourceLength = source.length();
+        int targetLength = target.length();
+        if (sourceLength == 0 || targetLength == 0) {
+            return sourceLength + targetLength;
+        }
+
+        // Lowrance-Wagner algorithm. Row and column 0 act as a border, so indices are offset by one
+        int infinity = sourceLength + targetLength;
+        int[][] distances = new int[sourceLength + 2][targetLength + 2];
+        distances[0][0] = infinity;
+        for (int i = 0; i <= sourceLength; i++) {
+            distances[i + 1][0] = infinity;
+            distances[i + 1][1] = i;
+        }
+        for (int j = 0; j <= targetLength; j++) {
+            distances[0][j + 1] = infinity;
+            distances[1][j + 1] = j;
+        }
+
+        // Last row in which each character of the source was seen
+        Map<Character, Integer> lastRows = new HashMap<>();
+        for (int i = 1; i <= sourceLength; i++) {
+            char sourceChar = source.charAt(i - 1);
+            int lastMatchingColumn = 0;
+            for (int j = 1; j <= targetLength; j++) {
+                char targetChar = target.charAt(j - 1);
+                Integer lastRow = lastRows.get(targetChar);
+                int i1 = lastRow == null ? 0 : lastRow;
+                int j1 = lastMatchingColumn;
+
+                int cost = 1;
+                if (sourceChar == targetChar) {
+                    cost = 0;
+                    lastMatchingColumn = j;
+                }
+
+                int substitution = distances[i][j] + cost;
+                int insertion = distances[i + 1][j] + 1;
+                int deletion = distances[i][j + 1] + 1;
+                int transposition = distances[i1][j1] + (i - i1 - 1) + 1 + (j - j1 - 1);
+                distances[i + 1][j + 1] = Math.min(Math.min(substitution, insertion), Math.min(deletion, transposition));
+            }
+            lastRows.put(sourceChar, i);
+        }
+        return distances[sourceLength + 1][targetLength + 1];
+    }
+
+    private static class Node {
+
+        private final String word;
+        private final HashMap<Integer, Node> children = new HashMap<>();
+        // Number of handlers with a label starting with this word. Removed words are kept (with a count of zero) until the tree is rebuilt
+        private int count;
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the value of a variable into a parameter of a command handler, e.g.
+ * <pre>
+ * &#64;Command(command = "pay &lt;target:player&gt; &lt;amount:int&gt;", description = "Pay another player")
+ * public boolean pay(CommandEvent event, &#64;Var("target") Player target, &#64;Var("amount") int amount)
+ * </pre>
+ * The first parameter of the command handler must still be its {@link com.dsh105.command.CommandEvent}. Parameters are bound to
+ * variables once, when the command is registered. Variables that were not entered (e.g. optional variables) are injected as null, or
+ * as the default value of primitive parameters.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Var {
+
+    /**
+     * Name of the variable, as declared in the command, e.g. "target" for "&lt;target:player&gt;"
+     *
+     * @return name of the injected variable
+     */
+    String value();
+}
@@ -29,6 +29,8 @@ public class Variable implements Comparable<Variable> {
     private String fullName;
     private String regex;
     private String name;
+    private String type;
+    private ArgumentParser<?> parser;
     private Range range;
     private boolean continuous;
     private boolean optional;
@@ -38,9 +40,14 @@ public class Variable implements Comparable<Variable> {
     }
 
     public Variable(String fullName, String regex, String name, Range range, boolean optional, boolean continuous) {
+        this(fullName, regex, name, "", range, optional, continuous);
+    }
+
+    public Variable(String fullName, String regex, String name, String type, Range range, boolean optional, boolean continuous) {
         this.fullName = fullName;
         this.regex = regex;
         this.name = name;
+        this.type = type;
         this.range = range;
         this.optional = optional;
         this.continuous = continuous;
@@ -52,6 +59,14 @@ public class Variable implements Comparable<Variable> {
                 throw new InvalidCommandException("Invalid pattern syntax for command variable (\"" + this.fullName + "\"): \"" + this.regex + "\"", e);
             }
         }
+
+        if (!this.type.isEmpty()) {
+            // Resolved once here so that matching never has to look it up
+            parser = ArgumentParsers.getParser(this.type);
+            if (parser == null) {
+                throw new InvalidCommandException("Unknown type for command variable (\"" + this.fullName + "\"): \"" + this.type + "\"");
+            }
+        }
     }
 
     public Pattern getPattern() {
@@ -70,6 +85,18 @@ public class Variable implements Comparable<Variable> {
         return name;
     }
 
+    public String getType() {
+        return type;
+    }
+
+    public ArgumentParser<?> getParser() {
+        return parser;
+    }
+
+    public boolean isTyped() {
+        return parser != null;
+    }
+
     public Range getRange() {
         return range;
     }
@@ -17,13 +17,9 @@
 
 package com.dsh105.command;
 
-import com.dsh105.command.exception.InvalidCommandException;
-import com.dsh105.commodus.StringUtil;
-
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 public class VariableMatcher {
 
@@ -31,108 +27,50 @@ public class VariableMatcher {
     protected static final Pattern SYNTAX_PATTERN = Pattern.compile("(<|\\[)((?:[^\\s](?!r:\"(?:.(?!,n:))+\"(?:,n:(?:.+))?))+)(>|\\])", Pattern.CASE_INSENSITIVE);
     protected static final Pattern REGEX_SYNTAX_PATTERN = Pattern.compile("(<|\\[)r:\"((?:.(?!,n:))+)\"(?:,n:(.+))?(?:>|\\])", Pattern.CASE_INSENSITIVE);
 
-    private String command;
-    private String eventInput;
+    private CommandSyntax syntax;
+    private CommandInput eventInput;
 
-    private String syntaxPattern;
-    private String humanReadableSyntax;
-    private List<String> arguments;
-    private ArrayList<Variable> variables;
+    private String[] arguments;
+    private Object[] values;
     private HashMap<Variable, String> matchedArguments;
 
     public VariableMatcher(String command, String eventInput) {
-        this.command = command;
-        this.eventInput = eventInput;
-        this.arguments = Arrays.asList(command.split("\\s"));
+        this(new CommandSyntax(command), eventInput);
     }
 
-    protected String buildVariableSyntax() {
-        if (variables == null) {
-            variables = new ArrayList<>();
-        }
-        String syntaxPattern = command;
-        String humanReadableSyntax = command;
-
-        ArrayList<Variable> tempVariables = new ArrayList<>();
-
-        Matcher regexMatcher = REGEX_SYNTAX_PATTERN.matcher(command);
-        while (regexMatcher.find()) {
-            String fullName = regexMatcher.group(0);
-            String openingTag = regexMatcher.group(1);
-            String regex = regexMatcher.group(2);
-            String name = regexMatcher.group(3);
-            boolean continuous = fullName.endsWith("...");
-
-            try {
-                Pattern.compile(regex);
-            } catch (PatternSyntaxException e) {
-                throw new InvalidCommandException("Invalid pattern syntax for command \"" + command + "\". Variable (\"" + fullName + "\") has invalid regex: \"" + regex + "\"", e);
-            }
-
-            int startIndex = arguments.indexOf(fullName);
-            Range range = new Range(startIndex, continuous ? eventInput.length() - 1 : startIndex);
-
-            tempVariables.add(new Variable(fullName, regex, name == null ? regex : name.replace("...", ""), range, openingTag.equals("["), continuous));
-        }
-
-        Matcher syntaxMatcher = SYNTAX_PATTERN.matcher(command);
-
-        while (syntaxMatcher.find()) {
-            String openingTag = syntaxMatcher.group(1);
-            String name = syntaxMatcher.group(2);
-            boolean continuous = name.endsWith("...");
-            boolean optional = openingTag.equals("[");
-
-            int startIndex = arguments.indexOf(syntaxMatcher.group(0));
-            Range range = new Range(startIndex, continuous ? eventInput.length() - 1 : startIndex);
-
-            Variable variable = new Variable(syntaxMatcher.group(0), name.replace("...", ""), range, optional, continuous);
-            if (!tempVariables.contains(variable)) {
-                tempVariables.add(variable);
-            }
-        }
-
-        for (Variable variable : tempVariables) {
-            /*
-             * Conditions:
-             * If the regex exists, make use of it
-             * Optional args can match something or nothing
-             * Varargs style arguments can match anything, including spaces
-             */
-
-            syntaxPattern = syntaxPattern.replace(variable.getFullName(), ((variable.isContinuous() ? ("(" + (variable.getRegex().isEmpty() ? ".+" : variable.getRegex()) + ")") : "([^\\s]+)") + (variable.isOptional() ? "?" : "")));
-            humanReadableSyntax = humanReadableSyntax.replace(variable.getFullName(), variable.getOpeningTag() + variable.getName() + (variable.isContinuous() ? "..." : "") + variable.getClosingTag());
-
-            variables.add(variable);
-        }
-        Collections.sort(variables);
+    public VariableMatcher(CommandSyntax syntax, String eventInput) {
+        this(syntax, CommandInput.parse(eventInput));
+    }
 
-        for (String argument : arguments) {
-            // In case the actual command contains any regex
-            syntaxPattern = syntaxPattern.replace(argument, Pattern.quote(argument));
-        }
+    public VariableMatcher(CommandSyntax syntax, CommandInput eventInput) {
+        this.syntax = syntax;
+        this.eventInput = eventInput;
+    }
 
-        this.syntaxPattern = syntaxPattern;
-        this.humanReadableSyntax = humanReadableSyntax;
-        return syntaxPattern;
+    public CommandSyntax getSyntax() {
+        return syntax;
     }
 
     public boolean matches() {
-        if (syntaxPattern == null) {
-            buildVariableSyntax();
-        }
-        return Pattern.compile("\\b" + syntaxPattern + "\\b", Pattern.CASE_INSENSITIVE).matcher(eventInput).matches();
+        return matches(RegexGuard.UNBOUNDED);
+    }
+
+    /**
+     * Matches the input against the syntax, aborting if the match reads too much of the input
+     *
+     * @param regexGuard guard limiting the match
+     * @return true if the input matches the syntax. False if it does not, or if the match was aborted
+     */
+    public boolean matches(RegexGuard regexGuard) {
+        return regexGuard.matches(syntax.getPattern(), eventInput.getInput());
     }
 
     public String getHumanReadableSyntax() {
-        return humanReadableSyntax;
+        return syntax.getHumanReadableSyntax();
     }
 
     public List<Variable> getVariables() {
-        if (variables == null) {
-            buildVariableSyntax();
-        }
-        return Collections.unmodifiableList(variables);
+        return syntax.getVariables();
     }
 
     public Variable getVariableByName(String name) {
@@ -166,6 +104,10 @@ public class VariableMatcher {
     }
 
     public String getMatchedArgumentByVariableName(String name, boolean ignoreCase) {
+        if (!ignoreCase) {
+            int slot = syntax.getSlot(name);
+            return slot < 0 ? null : getArguments()[slot];
+        }
         return getMatchedArguments().get(getVariableByName(name, ignoreCase));
     }
 
@@ -177,53 +119,118 @@ public class VariableMatcher {
         if (matchedArguments == null) {
             matchedArguments = new HashMap<>();
 
-            String[] input = eventInput.split("\\s");
-            for (Variable variable : getVariables()) {
-                if (variable.getRange().getStartIndex() < input.length && variable.getRange().getStartIndex() >= 0) {
-                    if (variable.getRange().getEndIndex() <= variable.getRange().getStartIndex()) {
-                        matchedArguments.put(variable, input[variable.getRange().getStartIndex()]);
-                    } else {
-                        matchedArguments.put(variable, StringUtil.combineArray(variable.getRange().getStartIndex(), " ", input));
-                    }
+            String[] arguments = getArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                if (arguments[i] != null) {
+                    matchedArguments.put(syntax.getVariable(i), arguments[i]);
                 }
             }
         }
         return Collections.unmodifiableMap(matchedArguments);
     }
 
-    public boolean testRegexVariables() {
-        Matcher matcher = REGEX_SYNTAX_PATTERN.matcher(command);
-        while (matcher.find()) {
-            Variable variable = getVariableByName(matcher.group(matcher.group(2) == null ? 1 : 2));
-            String regex = getMatchedArguments().get(variable);
-            if (regex != null) {
-                if (variable.getPattern().matcher(regex).matches()) {
-                    return true;
+    /**
+     * Gets the arguments entered for each variable, indexed by slot
+     *
+     * @return arguments entered for each variable, or null for variables that nothing was entered for
+     */
+    String[] getArguments() {
+        if (arguments == null) {
+            String[] arguments = new String[syntax.getSlotCount()];
+            for (int i = 0; i < arguments.length; i++) {
+                Range range = syntax.getVariable(i).getRange();
+                if (range.getStartIndex() < eventInput.size() && range.getStartIndex() >= 0) {
+                    if (range.getEndIndex() <= range.getStartIndex()) {
+                        arguments[i] = eventInput.get(range.getStartIndex());
+                    } else {
+                        arguments[i] = eventInput.join(range.getStartIndex());
+                    }
                 }
             }
+            this.arguments = arguments;
         }
-        return false;
+        return arguments;
+    }
+
+    /**
+     * Parses the arguments entered for each typed variable, e.g. "<amount:int>"
+     * <p>
+     * Arguments of variables without a type are kept as they were entered
+     *
+     * @return true if every argument that was entered is valid for the type of its variable
+     */
+    public boolean parseValues() {
+        String[] arguments = getArguments();
+        Object[] values = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            ArgumentParser<?> parser = syntax.getVariable(i).getParser();
+            if (parser == null || arguments[i] == null) {
+                values[i] = arguments[i];
+                continue;
+            }
+
+            values[i] = parser.parse(arguments[i]);
+            if (values[i] == null) {
+                return false;
+            }
+        }
+        this.values = values;
+        return true;
+    }
+
+    /**
+     * Gets the value of a variable
+     *
+     * @param slot index of the variable, in the order variables appear in the syntax
+     * @param <V>  type of value. For typed variables this is the type produced by its parser, otherwise String
+     * @return value of the variable, or null if nothing was entered for it
+     * @throws java.lang.IllegalStateException if the entered arguments are not valid for their types
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V getValue(int slot) {
+        if (values == null && !parseValues()) {
+            throw new IllegalStateException("Arguments are not valid for the syntax of this command");
+        }
+        return (V) values[slot];
     }
 
-    public String replaceVariables(String input) {
-        if (input == null || input.isEmpty()) {
-            return input;
+    /**
+     * Gets the value of a variable
+     *
+     * @param name name of the variable
+     * @param <V>  type of value. For typed variables this is the type produced by its parser, otherwise String
+     * @return value of the variable, or null if nothing was entered for it or there is no variable with that name
+     * @throws java.lang.IllegalStateException if the entered arguments are not valid for their types
+     */
+    public <V> V getValue(String name) {
+        int slot = syntax.getSlot(name);
+        return slot < 0 ? null : this.<V>getValue(slot);
+    }
+
+    public boolean testRegexVariables() {
+        return testRegexVariables(RegexGuard.UNBOUNDED);
+    }
+
+    public boolean testRegexVariables(RegexGuard regexGuard) {
+        if (!syntax.containsRegexVariables()) {
+            return false;
         }
 
-        Matcher optionalVariableMatcher = Pattern.compile("(?:\\[)([^\\]]+)(?:\\])").matcher(input);
-        while (optionalVariableMatcher.find()) {
-            if (getVariableByName(optionalVariableMatcher.group(1)) == null) {
-                // No variable = invalid permission = nuh-uh, don't use it
-                return null;
+        String[] arguments = getArguments();
+        for (int i = 0; i < arguments.length; i++) {
+            Pattern pattern = syntax.getVariable(i).getPattern();
+            if (pattern != null && arguments[i] != null && regexGuard.matches(pattern, arguments[i])) {
+                return true;
             }
         }
+        return false;
+    }
 
-        String modified = input;
-        for (Variable variable : getVariables()) {
-            String matchedArgument = getMatchedArgumentByVariableName(variable.getName());
-            modified = modified.replace(variable.getFullName(), matchedArgument == null ? "" : matchedArgument);
+    public String replaceVariables(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
         }
-        return modified;
+        return new PermissionTemplate(input, syntax).resolve(this);
     }
 
     public static boolean containsVariables(String input) {
@@ -0,0 +1,129 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.metrics;
+
+import com.dsh105.command.CommandHandler;
+import com.dsh105.command.ICommandManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of all commands handled by a {@link com.dsh105.command.ICommandManager}
+ * <p>
+ * Metrics for each command handler are kept by the handler itself (see {@link com.dsh105.command.CommandHandler#getMetrics()}), so
+ * recording them does not require any lookups.
+ */
+public class CommandMetrics {
+
+    private final ICommandManager manager;
+    private volatile boolean enabled = true;
+    private final AtomicLong notFound = new AtomicLong();
+    private final AtomicLong abortedMatches = new AtomicLong();
+    private final LatencyHistogram notFoundMatchTime = new LatencyHistogram();
+
+    public CommandMetrics(ICommandManager manager) {
+        this.manager = manager;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public HandlerMetrics get(CommandHandler commandHandler) {
+        return commandHandler.getMetrics();
+    }
+
+    public void recordNotFound(long matchNanos) {
+        notFound.incrementAndGet();
+        notFoundMatchTime.record(matchNanos);
+    }
+
+    /**
+     * Gets the number of commands that did not match any registered command
+     *
+     * @return number of commands not found
+     */
+    public long getNotFound() {
+        return notFound.get();
+    }
+
+    public void recordAbortedMatch() {
+        abortedMatches.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of regex matches that were aborted for reading too much of their input
+     *
+     * @return number of aborted matches
+     * @see com.dsh105.command.RegexGuard
+     */
+    public long getAbortedMatches() {
+        return abortedMatches.get();
+    }
+
+    /**
+     * Gets the time taken to find that a command did not match any registered command
+     *
+     * @return histogram of match times for commands that were not found
+     */
+    public LatencyHistogram getNotFoundMatchTime() {
+        return notFoundMatchTime;
+    }
+
+    /**
+     * Gets the registered command handlers with the slowest handler times
+     *
+     * @param percentile percentile of handler times to compare, between 0 and 100
+     * @param limit      maximum number of command handlers to return
+     * @return command handlers that have been executed at least once, slowest first
+     */
+    public List<CommandHandler> getSlowest(final double percentile, int limit) {
+        List<CommandHandler> executed = new ArrayList<>();
+        for (CommandHandler commandHandler : manager.getAllRegisteredCommands()) {
+            if (commandHandler.getMetrics().getInvocations() > 0) {
+                executed.add(commandHandler);
+            }
+        }
+
+        Collections.sort(executed, new Comparator<CommandHandler>() {
+            @Override
+            public int compare(CommandHandler handler1, CommandHandler handler2) {
+                return Double.compare(handler2.getMetrics().getHandlerTime().getPercentile(percentile, TimeUnit.NANOSECONDS), handler1.getMetrics().getHandlerTime().getPercentile(percentile, TimeUnit.NANOSECONDS));
+            }
+        });
+        return executed.size() > limit ? executed.subList(0, limit) : executed;
+    }
+
+    public void reset() {
+        for (CommandHandler commandHandler : manager.getAllRegisteredCommands()) {
+            commandHandler.getMetrics().reset();
+        }
+        notFound.set(0);
+        abortedMatches.set(0);
+        notFoundMatchTime.reset();
+    }
+}
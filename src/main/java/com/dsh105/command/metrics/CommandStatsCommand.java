@@ -0,0 +1,97 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.metrics;
+
+import com.dsh105.command.Command;
+import com.dsh105.command.CommandEvent;
+import com.dsh105.command.CommandHandler;
+import com.dsh105.command.CommandListener;
+import com.dsh105.command.ParentCommand;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional command listing the slowest commands of a manager, e.g. "/cmdstats" or "/cmdstats 20"
+ * <p>
+ * Not registered by default: use {@code manager.register(new CommandStatsCommand())} to enable it
+ */
+@Command(
+        command = "cmdstats",
+        description = "View the slowest commands and how often they are used",
+        permission = "commandmanager.stats",
+        includeInHelp = false
+)
+public class CommandStatsCommand implements CommandListener {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    @ParentCommand
+    public boolean stats(CommandEvent event) {
+        return showStats(event, DEFAULT_LIMIT);
+    }
+
+    @Command(
+            command = "cmdstats <limit>",
+            description = "View the slowest commands and how often they are used",
+            permission = "commandmanager.stats",
+            includeInHelp = false
+    )
+    public boolean statsWithLimit(CommandEvent event) {
+        int limit;
+        try {
+            limit = Integer.parseInt(event.variable("limit"));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return showStats(event, limit);
+    }
+
+    private boolean showStats(CommandEvent event, int limit) {
+        CommandMetrics metrics = event.getManager().getMetrics();
+        if (!metrics.isEnabled()) {
+            event.respond("Command metrics are disabled.");
+            return true;
+        }
+
+        List<CommandHandler> slowest = metrics.getSlowest(99, limit);
+        event.respond("Slowest commands (p50 / p99 / max handler time, in ms):");
+        for (CommandHandler commandHandler : slowest) {
+            HandlerMetrics handlerMetrics = commandHandler.getMetrics();
+            LatencyHistogram handlerTime = handlerMetrics.getHandlerTime();
+            event.respond(String.format("{c1}/%s{c2}: %d runs, %d failed, %d denied - %.2f / %.2f / %.2f (match %.3f, permissions %.3f)",
+                    commandHandler.getCommandName(),
+                    handlerMetrics.getInvocations(),
+                    handlerMetrics.getFailures(),
+                    handlerMetrics.getPermissionDenied(),
+                    handlerTime.getPercentile(50, TimeUnit.MILLISECONDS),
+                    handlerTime.getPercentile(99, TimeUnit.MILLISECONDS),
+                    handlerTime.getMaximum(TimeUnit.MILLISECONDS),
+                    handlerMetrics.getMatchTime().getPercentile(99, TimeUnit.MILLISECONDS),
+                    handlerMetrics.getPermissionTime().getPercentile(99, TimeUnit.MILLISECONDS)));
+        }
+        if (slowest.isEmpty()) {
+            event.respond("No commands have been executed yet.");
+        }
+        event.respond("Commands not found: " + metrics.getNotFound());
+        if (metrics.getAbortedMatches() > 0) {
+            event.respond("Aborted regex matches: " + metrics.getAbortedMatches());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.metrics;
+
+import com.dsh105.command.CommandEvent;
+import com.dsh105.command.CommandHandler;
+import com.dsh105.command.MatchedCommand;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Receives timings for individual commands as they are matched, executed and rendered in help pages
+ * <p>
+ * Unlike {@link com.dsh105.command.metrics.CommandMetrics}, which aggregates timings, tracers see every single command. They are
+ * intended for recording tools such as Java Flight Recorder (see the CommandManager-jfr module), so that command spikes can be
+ * correlated with other events in the same recording. Nothing is timed while {@link #isEnabled()} returns false.
+ * <p>
+ * Each operation is announced before it is timed. Whatever the start hook returns is handed back once the operation completes,
+ * so a tracer can open an event (or a span) as the operation begins and close it when it ends.
+ */
+public interface CommandTracer {
+
+    /**
+     * Gets whether anything is currently being recorded. Called before every traced operation, so this should be cheap
+     *
+     * @return true if commands should be timed and passed to this tracer
+     */
+    boolean isEnabled();
+
+    /**
+     * Called before input is matched against the registered commands
+     *
+     * @param input input that is about to be matched
+     * @return context passed back to {@link #commandMatched(Object, String, int, MatchedCommand, long)}, or null
+     */
+    Object matchStarted(String input);
+
+    /**
+     * Called once input has been matched against the registered commands
+     *
+     * @param context        value returned from {@link #matchStarted(String)}
+     * @param input          input that was matched
+     * @param candidateCount number of candidates tested before a match was found (or all of them, if none matched)
+     * @param matchedCommand command that was matched, or null if none matched
+     * @param nanos          time taken to match the input
+     */
+    void commandMatched(Object context, String input, int candidateCount, MatchedCommand matchedCommand, long nanos);
+
+    /**
+     * Called before a command handler is executed
+     *
+     * @param commandHandler command handler that is about to be executed
+     * @param event          event it is executed for
+     * @return context passed back to {@link #commandExecuted(Object, CommandHandler, CommandEvent, boolean, long)}, or null
+     */
+    Object executionStarted(CommandHandler commandHandler, CommandEvent<?> event);
+
+    /**
+     * Called once a command handler has been executed, whether or not it succeeded
+     *
+     * @param context        value returned from {@link #executionStarted(CommandHandler, CommandEvent)}
+     * @param commandHandler command handler that was executed
+     * @param event          event it was executed for
+     * @param failed         true if the command handler threw an exception
+     * @param nanos          time taken to execute the command handler
+     */
+    void commandExecuted(Object context, CommandHandler commandHandler, CommandEvent<?> event, boolean failed, long nanos);
+
+    /**
+     * Called before a help page is built and sent
+     *
+     * @param sender     sender the page is sent to
+     * @param pageNumber page that was requested
+     * @return context passed back to {@link #helpRendered(Object, CommandSender, int, boolean, long)}, or null
+     */
+    Object helpRenderStarted(CommandSender sender, int pageNumber);
+
+    /**
+     * Called once a help page has been built and sent
+     *
+     * @param context    value returned from {@link #helpRenderStarted(CommandSender, int)}
+     * @param sender     sender the page was sent to
+     * @param pageNumber page that was requested
+     * @param found      false if the page did not exist
+     * @param nanos      time taken to render and send the page
+     */
+    void helpRendered(Object context, CommandSender sender, int pageNumber, boolean found, long nanos);
+}
@@ -0,0 +1,235 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.metrics;
+
+import com.dsh105.command.CommandEvent;
+import com.dsh105.command.CommandHandler;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Reports command handlers that take longer than a set threshold to execute
+ * <p>
+ * Running handlers are checked by a background thread. Once a handler exceeds the threshold, the stack of the thread executing it is
+ * sampled and logged through the plugin logger, together with the input, sender type and matched label - the handler does not need
+ * to finish for it to be reported, so handlers that stall the main thread are reported while they are stalling. Each command handler
+ * is reported at most once per log interval; further reports within that interval are counted and summarised in the next one.
+ * <p>
+ * Not enabled by default: use {@link com.dsh105.command.ICommandManager#setWatchdog(CommandWatchdog)} to enable it.
+ */
+public class CommandWatchdog {
+
+    public static final long DEFAULT_THRESHOLD_MILLIS = 50;
+    public static final long DEFAULT_LOG_INTERVAL_SECONDS = 60;
+    public static final int DEFAULT_MAXIMUM_STACK_DEPTH = 32;
+
+    private final Plugin plugin;
+    private final long thresholdNanos;
+    private final long logIntervalNanos;
+    private volatile int maximumStackDepth = DEFAULT_MAXIMUM_STACK_DEPTH;
+
+    private final Set<Watch> running = Collections.newSetFromMap(new ConcurrentHashMap<Watch, Boolean>());
+    // Only accessed by the watchdog thread. Weak keys, so that handlers that have been unregistered are forgotten
+    private final Map<CommandHandler, ReportHistory> history = new WeakHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+
+    public CommandWatchdog(Plugin plugin) {
+        this(plugin, DEFAULT_THRESHOLD_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a new watchdog
+     *
+     * @param plugin          plugin to log reports through
+     * @param threshold       how long a handler may run for before it is reported
+     * @param thresholdUnit   unit of the threshold
+     * @param logInterval     minimum time between two reports for the same command handler
+     * @param logIntervalUnit unit of the log interval
+     */
+    public CommandWatchdog(Plugin plugin, long threshold, TimeUnit thresholdUnit, long logInterval, TimeUnit logIntervalUnit) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Threshold must be greater than zero");
+        }
+        this.plugin = plugin;
+        this.thresholdNanos = thresholdUnit.toNanos(threshold);
+        this.logIntervalNanos = logIntervalUnit.toNanos(logInterval);
+    }
+
+    public long getThreshold(TimeUnit unit) {
+        return unit.convert(thresholdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getLogInterval(TimeUnit unit) {
+        return unit.convert(logIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int getMaximumStackDepth() {
+        return maximumStackDepth;
+    }
+
+    public void setMaximumStackDepth(int maximumStackDepth) {
+        this.maximumStackDepth = maximumStackDepth;
+    }
+
+    /**
+     * Starts watching a command handler executed by the current thread
+     *
+     * @param commandHandler command handler about to be executed
+     * @param event          event the command handler is executed for
+     * @return watch to finish once the command handler returns
+     */
+    public Watch watch(CommandHandler commandHandler, CommandEvent<?> event) {
+        if (scheduler == null) {
+            // Only lock until the background thread is running
+            ensureStarted();
+        }
+        Watch watch = new Watch(commandHandler, event, Thread.currentThread(), System.nanoTime());
+        running.add(watch);
+        return watch;
+    }
+
+    /**
+     * Stops the background thread. Command handlers that are still running will not be reported
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        running.clear();
+    }
+
+    private synchronized void ensureStarted() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, plugin.getName() + " Command Watchdog");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        // Check often enough that handlers are sampled shortly after they pass the threshold
+        long period = Math.max(TimeUnit.MILLISECONDS.toNanos(1), thresholdNanos / 4);
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                check();
+            }
+        }, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    private void check() {
+        long now = System.nanoTime();
+        for (Watch watch : running) {
+            if (watch.reported || now - watch.start < thresholdNanos) {
+                continue;
+            }
+
+            // Sample before anything else - the handler may return at any moment
+            StackTraceElement[] stack = watch.thread.getStackTrace();
+            if (!running.contains(watch)) {
+                continue;
+            }
+            watch.reported = true;
+
+            ReportHistory reportHistory = history.get(watch.commandHandler);
+            if (reportHistory == null) {
+                reportHistory = new ReportHistory();
+                history.put(watch.commandHandler, reportHistory);
+            }
+            if (reportHistory.reported && now - reportHistory.lastReport < logIntervalNanos) {
+                reportHistory.suppressed++;
+                continue;
+            }
+
+            report(watch, stack, now - watch.start, reportHistory.suppressed);
+            reportHistory.reported = true;
+            reportHistory.lastReport = now;
+            reportHistory.suppressed = 0;
+        }
+    }
+
+    private void report(Watch watch, StackTraceElement[] stack, long elapsedNanos, int suppressed) {
+        CommandEvent<?> event = watch.event;
+        StringBuilder report = new StringBuilder()
+                .append("Command \"").append(event.input()).append("\" has been running for ")
+                .append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append("ms")
+                .append(" (label: ").append(event.getVariableMatcher() == null ? watch.commandHandler.getCommandName() : event.getVariableMatcher().getSyntax().getCommand())
+                .append(", sender: ").append(SenderTypes.describe(event.sender()))
+                .append(", thread: ").append(watch.thread.getName()).append(")");
+        if (suppressed > 0) {
+            report.append(" [").append(suppressed).append(" similar report").append(suppressed == 1 ? "" : "s").append(" suppressed]");
+        }
+
+        int depth = Math.min(stack.length, maximumStackDepth);
+        for (int i = 0; i < depth; i++) {
+            report.append("\n\tat ").append(stack[i]);
+        }
+        if (depth < stack.length) {
+            report.append("\n\t... ").append(stack.length - depth).append(" more");
+        }
+        plugin.getLogger().log(Level.WARNING, report.toString());
+    }
+
+    public class Watch {
+
+        private final CommandHandler commandHandler;
+        private final CommandEvent<?> event;
+        private final Thread thread;
+        private final long start;
+        private volatile boolean reported;
+
+        private Watch(CommandHandler commandHandler, CommandEvent<?> event, Thread thread, long start) {
+            this.commandHandler = commandHandler;
+            this.event = event;
+            this.thread = thread;
+            this.start = start;
+        }
+
+        /**
+         * Stops watching the command handler
+         *
+         * @return true if the command handler exceeded the threshold
+         */
+        public boolean finish() {
+            running.remove(this);
+            return System.nanoTime() - start >= thresholdNanos;
+        }
+    }
+
+    private static class ReportHistory {
+
+        private boolean reported;
+        private long lastReport;
+        private int suppressed;
+    }
+}
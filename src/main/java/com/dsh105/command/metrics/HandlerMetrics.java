@@ -0,0 +1,115 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latencies recorded for a single {@link com.dsh105.command.CommandHandler}
+ */
+public class HandlerMetrics {
+
+    private final AtomicLong invocations = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong permissionDenied = new AtomicLong();
+    private final LatencyHistogram matchTime = new LatencyHistogram();
+    private final LatencyHistogram permissionTime = new LatencyHistogram();
+    private final LatencyHistogram handlerTime = new LatencyHistogram();
+
+    public void recordMatch(long nanos) {
+        matchTime.record(nanos);
+    }
+
+    public void recordPermissionCheck(long nanos, boolean denied) {
+        permissionTime.record(nanos);
+        if (denied) {
+            permissionDenied.incrementAndGet();
+        }
+    }
+
+    public void recordInvocation(long nanos, boolean failed) {
+        handlerTime.record(nanos);
+        invocations.incrementAndGet();
+        if (failed) {
+            failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of times the command handler was executed, including those that failed
+     *
+     * @return number of invocations
+     */
+    public long getInvocations() {
+        return invocations.get();
+    }
+
+    /**
+     * Gets the number of times the command handler threw an exception
+     *
+     * @return number of failed invocations
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Gets the number of times the command was matched, but the sender did not have permission to use it
+     *
+     * @return number of times permission was denied
+     */
+    public long getPermissionDenied() {
+        return permissionDenied.get();
+    }
+
+    /**
+     * Gets the time taken to match input to this command
+     *
+     * @return histogram of match times
+     */
+    public LatencyHistogram getMatchTime() {
+        return matchTime;
+    }
+
+    /**
+     * Gets the time taken to resolve and check the permissions of this command
+     *
+     * @return histogram of permission check times
+     */
+    public LatencyHistogram getPermissionTime() {
+        return permissionTime;
+    }
+
+    /**
+     * Gets the time taken by the command handler itself, including the sending of any usage information
+     *
+     * @return histogram of command handler times
+     */
+    public LatencyHistogram getHandlerTime() {
+        return handlerTime;
+    }
+
+    public void reset() {
+        invocations.set(0);
+        failures.set(0);
+        permissionDenied.set(0);
+        matchTime.reset();
+        permissionTime.reset();
+        handlerTime.reset();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command.metrics;
+
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * Short descriptions of command senders, as shown in watchdog reports and recorded by tracers
+ */
+public final class SenderTypes {
+
+    private SenderTypes() {
+    }
+
+    /**
+     * Describes the type of a command sender, e.g. "player" or "console"
+     *
+     * @param sender sender to describe
+     * @return type of the sender, or "none" if there is no sender
+     */
+    public static String describe(CommandSender sender) {
+        if (sender instanceof Player) {
+            return "player";
+        } else if (sender instanceof ConsoleCommandSender) {
+            return "console";
+        } else if (sender instanceof BlockCommandSender) {
+            return "command block";
+        }
+        return sender == null ? "none" : sender.getClass().getSimpleName();
+    }
+}
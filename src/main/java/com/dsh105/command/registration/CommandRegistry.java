@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Thanks CaptainBern ;D
@@ -37,7 +38,7 @@ import java.util.List;
 public class CommandRegistry {
 
     protected static Field SERVER_COMMAND_MAP;
-    private final ArrayList<String> REGISTERED_COMMANDS = new ArrayList<>();
+    private final CopyOnWriteArrayList<String> REGISTERED_COMMANDS = new CopyOnWriteArrayList<>();
 
     static {
         Bukkit.getHelpMap().registerHelpTopicFactory(DynamicPluginCommand.class, new DynamicPluginCommandHelpTopicFactory());
@@ -21,9 +21,11 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginIdentifiableCommand;
+import org.bukkit.command.TabCompleter;
 import org.bukkit.plugin.Plugin;
 
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Thanks CaptainBern ;D
@@ -45,6 +47,17 @@ public class DynamicPluginCommand extends Command implements PluginIdentifiableC
 
     }
 
+    @Override
+    public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
+        if (owningPlugin.isEnabled() && registeredWith instanceof TabCompleter) {
+            List<String> completions = ((TabCompleter) registeredWith).onTabComplete(sender, this, alias, args);
+            if (completions != null) {
+                return completions;
+            }
+        }
+        return super.tabComplete(sender, alias, args);
+    }
+
     public CommandExecutor getRegisteredWith() {
         return registeredWith;
     }
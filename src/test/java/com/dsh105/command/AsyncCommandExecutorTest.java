@@ -0,0 +1,90 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncCommandExecutorTest {
+
+    @Test
+    public void testConcurrencyLimit() throws InterruptedException {
+        AsyncCommandExecutor executor = new AsyncCommandExecutor(2, 3);
+        Assert.assertEquals(supportsVirtualThreads(), executor.isVirtual());
+
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(5);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximumRunning = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                int now = running.incrementAndGet();
+                synchronized (maximumRunning) {
+                    maximumRunning.set(Math.max(maximumRunning.get(), now));
+                }
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+                running.decrementAndGet();
+                finished.countDown();
+            }
+        };
+
+        for (int i = 0; i < 5; i++) {
+            executor.execute(task);
+        }
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, executor.getActive());
+        Assert.assertEquals(3, executor.getQueued());
+
+        try {
+            executor.execute(task);
+            Assert.fail("Queue should be full");
+        } catch (RejectedExecutionException expected) {
+            Assert.assertEquals(1, executor.getRejected());
+        }
+
+        release.countDown();
+        Assert.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        Assert.assertEquals(2, maximumRunning.get());
+        Assert.assertEquals(0, executor.getQueued());
+        Assert.assertEquals(5, executor.getCompleted());
+    }
+
+    private static boolean supportsVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
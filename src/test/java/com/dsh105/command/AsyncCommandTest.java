@@ -0,0 +1,78 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+public class AsyncCommandTest {
+
+    @Test
+    public void testAsyncExecution() throws InterruptedException {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        manager.setAsyncExecutor(executor);
+
+        AsyncCommandListener listener = new AsyncCommandListener();
+        manager.register(listener);
+
+        Assert.assertTrue(manager.onCommand(new MockCommandEvent<>(manager, "async", mock(CommandSender.class))));
+        Assert.assertTrue(manager.onCommand(new MockCommandEvent<>(manager, "sync", mock(CommandSender.class))));
+        Assert.assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        Assert.assertNotEquals(Thread.currentThread(), listener.asyncThread);
+        Assert.assertEquals(Thread.currentThread(), listener.syncThread);
+    }
+
+    public static class AsyncCommandListener implements CommandListener {
+
+        private final CountDownLatch latch = new CountDownLatch(2);
+        private volatile Thread asyncThread;
+        private volatile Thread syncThread;
+
+        @Async
+        @Command(
+                command = "async",
+                description = "Test asynchronous command"
+        )
+        public boolean asyncCommand(CommandEvent event) {
+            asyncThread = Thread.currentThread();
+            latch.countDown();
+            return true;
+        }
+
+        @Command(
+                command = "sync",
+                description = "Test synchronous command"
+        )
+        public boolean syncCommand(CommandEvent event) {
+            syncThread = Thread.currentThread();
+            latch.countDown();
+            return true;
+        }
+    }
+}
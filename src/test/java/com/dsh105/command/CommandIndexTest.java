@@ -0,0 +1,184 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CommandIndexTest {
+
+    @Test
+    public void testMatching() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        manager.register(new MockCommandListener());
+
+        assertMatch(manager, "parent", "parent");
+        assertMatch(manager, "PARENT test", "parent test");
+        assertMatch(manager, "something wow", "something <var>");
+        assertMatch(manager, "v wow", "v <var>");
+        assertMatch(manager, "v", "v");
+        assertMatch(manager, "extra command length woo", "extra <info...>");
+
+        Assert.assertNull(manager.matchCommand("parent sub"));
+        Assert.assertNull(manager.matchCommand("something"));
+        Assert.assertNull(manager.matchCommand("nothing here"));
+    }
+
+    @Test
+    public void testUnregister() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        CommandListener listener = new MockCommandListener();
+        manager.register(listener);
+        Assert.assertNotNull(manager.matchCommand("something wow"));
+
+        manager.unregister(listener);
+        Assert.assertNull(manager.matchCommand("something wow"));
+        Assert.assertTrue(manager.getCommandIndex().match("something wow").isEmpty());
+    }
+
+    @Test
+    public void testConcurrentMatching() throws InterruptedException {
+        final MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        final CommandListener listener = new MockCommandListener();
+        manager.register(new MockTableCommandListener());
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread matcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        // Always registered, regardless of what happens to the other listener
+                        Assert.assertNotNull(manager.matchCommand("table sub wow"));
+                        manager.matchCommand("something wow");
+                        manager.getAllRegisteredCommands().size();
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        });
+        matcher.start();
+        for (int i = 0; i < 200; i++) {
+            manager.register(listener);
+            manager.unregister(listener);
+        }
+        matcher.join();
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        Assert.assertNull(manager.matchCommand("something wow"));
+    }
+
+    @Test
+    public void testTypedMatching() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        manager.register(new TypedCommandListener());
+
+        MatchedCommand matchedCommand = manager.matchCommand("give 64");
+        Assert.assertNotNull(matchedCommand);
+        Assert.assertEquals("give <amount:int>", matchedCommand.getMatchedLabel());
+        Assert.assertEquals(64, (int) matchedCommand.getVariableMatcher().<Integer>getValue("amount"));
+
+        // Not a number, so left to the less specific command
+        assertMatch(manager, "give diamonds", "give <item>");
+    }
+
+    @Test
+    public void testRegexMatching() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        CommandListener listener = new RegexCommandListener();
+        manager.register(listener);
+
+        assertMatch(manager, "colour red", "colour <r:\"red|green\",n:name>");
+        assertMatch(manager, "colour 255", "colour <r:\"[0-9]+\",n:code>");
+        assertMatch(manager, "colour aa", "colour <r:\"(a)\\1\",n:pair>");
+        assertMatch(manager, "colour blue", "colour <other>");
+
+        // Only the regexes the token matches lead anywhere
+        Assert.assertEquals(2, manager.getCommandIndex().match("colour green").size());
+        Assert.assertEquals(1, manager.getCommandIndex().match("colour blue").size());
+
+        manager.unregister(listener);
+        Assert.assertTrue(manager.getCommandIndex().match("colour red").isEmpty());
+    }
+
+    private void assertMatch(MockCommandManager manager, String input, String expectedLabel) {
+        MatchedCommand matchedCommand = manager.matchCommand(input);
+        Assert.assertNotNull("No match for \"" + input + "\"", matchedCommand);
+        Assert.assertEquals(expectedLabel, matchedCommand.getMatchedLabel());
+    }
+
+    @Command(
+            command = "give <amount:int>",
+            description = "Typed variable test"
+    )
+    public static class TypedCommandListener implements CommandListener {
+
+        @ParentCommand
+        public boolean amount(CommandEvent event) {
+            return true;
+        }
+
+        @Command(
+                command = "give <item>",
+                description = "Untyped variable test"
+        )
+        public boolean item(CommandEvent event) {
+            return true;
+        }
+    }
+
+    public static class RegexCommandListener implements CommandListener {
+
+        @Command(
+                command = "colour <r:\"red|green\",n:name>",
+                description = "Regex variable test"
+        )
+        public boolean name(CommandEvent event) {
+            return true;
+        }
+
+        @Command(
+                command = "colour <r:\"[0-9]+\",n:code>",
+                description = "Regex variable test"
+        )
+        public boolean code(CommandEvent event) {
+            return true;
+        }
+
+        @Command(
+                command = "colour <r:\"(a)\\1\",n:pair>",
+                description = "Regex variable with a backreference test"
+        )
+        public boolean pair(CommandEvent event) {
+            return true;
+        }
+
+        @Command(
+                command = "colour <other>",
+                description = "Untyped variable test"
+        )
+        public boolean other(CommandEvent event) {
+            return true;
+        }
+    }
+}
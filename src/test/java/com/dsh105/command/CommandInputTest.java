@@ -0,0 +1,66 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+
+public class CommandInputTest {
+
+    @Test
+    public void testTokenizing() {
+        String normalised = "command sub argument";
+        CommandInput input = CommandInput.parse(normalised);
+        Assert.assertSame(normalised, input.getInput());
+        Assert.assertEquals(3, input.size());
+        Assert.assertEquals("sub", input.get(1));
+        Assert.assertEquals("sub argument", input.join(1));
+        Assert.assertEquals("", input.join(3));
+
+        input = CommandInput.parse("  command \t sub   argument ");
+        Assert.assertEquals(normalised, input.getInput());
+        Assert.assertEquals("argument", input.get(2));
+        Assert.assertArrayEquals(new String[]{"sub", "argument"}, input.toArray(1));
+
+        input = CommandInput.of("command", "sub", "", "argument");
+        Assert.assertEquals(normalised, input.getInput());
+        Assert.assertEquals(3, input.size());
+
+        Assert.assertTrue(CommandInput.parse("   ").isEmpty());
+        Assert.assertEquals("", CommandInput.parse("").getInput());
+    }
+
+    @Test
+    public void testEventInput() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        CommandEvent<CommandSender> event = new CommandEvent<>(manager, "extra  command length", mock(CommandSender.class));
+        Assert.assertEquals("extra", event.command());
+        Assert.assertEquals("extra command length", event.input());
+        Assert.assertArrayEquals(new String[]{"command", "length"}, event.args());
+
+        event = new CommandEvent<>(manager, mock(CommandSender.class), "extra", "command", "length");
+        Assert.assertEquals("extra command length", event.input());
+        Assert.assertEquals(2, event.argsLength());
+
+        event = new CommandEvent<>(manager, "extra", mock(CommandSender.class));
+        Assert.assertEquals(0, event.argsLength());
+    }
+}
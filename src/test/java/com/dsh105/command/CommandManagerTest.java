@@ -17,12 +17,27 @@
 
 package com.dsh105.command;
 
+import com.dsh105.command.exception.CommandInvocationException;
+import com.dsh105.command.exception.CommandRegistrationException;
+import com.dsh105.command.registration.CommandRegistry;
 import com.dsh105.commodus.StringUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.help.HelpMap;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Logger;
+
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -65,4 +80,147 @@ public class CommandManagerTest {
             }
         }
     }
+
+    @Test(expected = CommandRegistrationException.class)
+    public void testDuplicateRegistration() {
+        MockCommandManager manager = new MockCommandManager(getMockedPlugin());
+        CommandListener listener = new MockCommandListener();
+        manager.register(listener);
+        Assert.assertTrue(manager.getRegisteredListeners().contains(listener));
+
+        manager.register(listener);
+    }
+
+    @Test
+    public void testUnregister() {
+        if (Bukkit.getServer() == null) {
+            // CommandRegistry hooks into the server's help map when it is first loaded
+            Server server = mock(Server.class);
+            when(server.getLogger()).thenReturn(Logger.getLogger("CommandTest"));
+            when(server.getHelpMap()).thenReturn(mock(HelpMap.class));
+            when(server.getPluginManager()).thenReturn(mock(PluginManager.class));
+            Bukkit.setServer(server);
+        }
+
+        final RecordingCommandRegistry registry = new RecordingCommandRegistry();
+        MockCommandManager manager = new MockCommandManager(getMockedPlugin()) {
+            @Override
+            public CommandRegistry getRegistry() {
+                return registry;
+            }
+        };
+
+        CommandListener listener = new MockCommandListener();
+        CommandListener nestedListener = new NestedParentListener();
+        manager.register(listener);
+        manager.register(nestedListener);
+        Assert.assertTrue(registry.registered.contains("parent"));
+        Assert.assertTrue(registry.registered.contains("v"));
+
+        // "parent" is still used by the first listener
+        manager.unregister(nestedListener);
+        Assert.assertTrue(registry.registered.contains("parent"));
+        Assert.assertNotNull(manager.matchCommand("parent"));
+        Assert.assertNull(manager.matchCommand("parent other"));
+
+        manager.unregister(listener);
+        Assert.assertTrue(registry.registered.isEmpty());
+        Assert.assertTrue(manager.getRegisteredCommands(listener).isEmpty());
+        Assert.assertFalse(manager.getRegisteredListeners().contains(listener));
+        Assert.assertNull(manager.matchCommand("parent"));
+    }
+
+    @Test
+    public void testHandlerExceptions() throws Exception {
+        MockCommandManager manager = new MockCommandManager(getMockedPlugin());
+        FailingListener listener = new FailingListener();
+        manager.register(listener);
+
+        // Invoked through a method handle, with and without injected variables
+        for (String command : new String[]{"fail", "fail with reason"}) {
+            try {
+                manager.onCommand(new MockCommandEvent<>(manager, command, mock(CommandSender.class)));
+                Assert.fail("\"" + command + "\" should have failed");
+            } catch (CommandInvocationException e) {
+                assertWrapped(e.getCause());
+            }
+        }
+
+        // Invoked through a generated invoker
+        Method method = FailingListener.class.getMethod("fail", CommandEvent.class);
+        CommandHandler handler = new CommandHandler(listener, listener, method.getAnnotation(Command.class), method, CommandSender.class, new CommandInvoker() {
+            @Override
+            public boolean invoke(CommandListener listener, CommandEvent event) throws Exception {
+                return ((FailingListener) listener).fail(event);
+            }
+        });
+        try {
+            handler.invoke(new MockCommandEvent<>(manager, "fail", mock(CommandSender.class)));
+            Assert.fail("\"fail\" should have failed");
+        } catch (Exception e) {
+            assertWrapped(e);
+        }
+    }
+
+    private static void assertWrapped(Throwable e) {
+        Assert.assertTrue(e instanceof InvocationTargetException);
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    public static class FailingListener implements CommandListener {
+
+        @Command(
+                command = "fail",
+                description = "Test command that always fails"
+        )
+        public boolean fail(CommandEvent event) {
+            throw new IllegalStateException("Failed");
+        }
+
+        @Command(
+                command = "fail with <reason>",
+                description = "Test command that always fails"
+        )
+        public boolean failWithReason(CommandEvent event, @Var("reason") String reason) {
+            throw new IllegalStateException(reason);
+        }
+    }
+
+    public static class NestedParentListener implements CommandListener {
+
+        @NestedCommand(parentCommand = "parent ")
+        @Command(
+                command = "other",
+                description = "Test command nested in another listener"
+        )
+        public boolean otherCommand(CommandEvent event) {
+            return true;
+        }
+    }
+
+    private static class RecordingCommandRegistry extends CommandRegistry {
+
+        private final List<String> registered = new ArrayList<>();
+
+        public RecordingCommandRegistry() {
+            super(null);
+        }
+
+        @Override
+        public void register(Collection<CommandHandler> registrationQueue) {
+            for (CommandHandler handler : registrationQueue) {
+                registered.add(handler.getCommandName().split("\\s")[0]);
+                for (String alias : handler.getCommand().aliases()) {
+                    registered.add(alias.split("\\s")[0]);
+                }
+            }
+        }
+
+        @Override
+        public void unregister(String command) {
+            while (registered.remove(command)) {
+                // Remove every occurrence
+            }
+        }
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import com.dsh105.command.metrics.CommandStatsCommand;
+import com.dsh105.command.metrics.CommandTracer;
+import com.dsh105.command.metrics.HandlerMetrics;
+import com.dsh105.command.metrics.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+public class CommandMetricsTest {
+
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        double median = histogram.getPercentile(50, TimeUnit.MICROSECONDS);
+        double p99 = histogram.getPercentile(99, TimeUnit.MICROSECONDS);
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(500, median, 500 * 0.125);
+        Assert.assertEquals(990, p99, 990 * 0.125);
+        Assert.assertEquals(1000, histogram.getMaximum(TimeUnit.MICROSECONDS), 0);
+        Assert.assertEquals(500.5, histogram.getMean(TimeUnit.MICROSECONDS), 0.001);
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(99, TimeUnit.MICROSECONDS), 0);
+    }
+
+    @Test
+    public void testHistogramBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-1);
+
+        Assert.assertEquals(2, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(50, TimeUnit.NANOSECONDS), 0);
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getPercentile(100, TimeUnit.NANOSECONDS), 0);
+    }
+
+    @Test
+    public void testCommandCounters() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        manager.register(new MockCommandListener());
+
+        manager.onCommand(new MockCommandEvent<>(manager, "something wow", mock(CommandSender.class)));
+        manager.onCommand(new MockCommandEvent<>(manager, "something wow", mock(CommandSender.class)));
+        manager.onCommand(new MockCommandEvent<>(manager, "nothing here", mock(CommandSender.class)));
+
+        CommandHandler handler = manager.matchCommand("something wow").getCommandHandler();
+        HandlerMetrics handlerMetrics = manager.getMetrics().get(handler);
+        Assert.assertEquals(2, handlerMetrics.getInvocations());
+        Assert.assertEquals(2, handlerMetrics.getMatchTime().getCount());
+        Assert.assertEquals(0, handlerMetrics.getFailures());
+        Assert.assertEquals(1, manager.getMetrics().getNotFound());
+
+        List<CommandHandler> slowest = manager.getMetrics().getSlowest(99, 1);
+        Assert.assertEquals(1, slowest.size());
+        Assert.assertEquals(handler, slowest.get(0));
+
+        manager.getMetrics().reset();
+        Assert.assertEquals(0, handlerMetrics.getInvocations());
+        Assert.assertEquals(0, manager.getMetrics().getNotFound());
+
+        manager.getMetrics().setEnabled(false);
+        manager.onCommand(new MockCommandEvent<>(manager, "something wow", mock(CommandSender.class)));
+        Assert.assertEquals(0, handlerMetrics.getInvocations());
+    }
+
+    @Test
+    public void testStatsCommand() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin()) {
+            @Override
+            public boolean hasPermission(CommandSender sender, String permission) {
+                return true;
+            }
+        };
+        manager.register(new CommandStatsCommand());
+
+        MatchedCommand bare = manager.matchCommand("cmdstats");
+        Assert.assertNotNull(bare);
+        Assert.assertNotNull(manager.matchCommand("cmdstats 5"));
+
+        Assert.assertTrue(manager.onCommand(new MockCommandEvent<>(manager, "cmdstats", mock(CommandSender.class))));
+        Assert.assertEquals(1, bare.getCommandHandler().getMetrics().getInvocations());
+        Assert.assertEquals(0, bare.getCommandHandler().getMetrics().getFailures());
+    }
+
+    @Test
+    public void testTracer() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        manager.register(new MockCommandListener());
+
+        final List<String> traced = new ArrayList<>();
+        manager.setTracer(new CommandTracer() {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public Object matchStarted(String input) {
+                traced.add("start match " + input);
+                return input;
+            }
+
+            @Override
+            public void commandMatched(Object context, String input, int candidateCount, MatchedCommand matchedCommand, long nanos) {
+                Assert.assertSame(input, context);
+                traced.add("match " + input + " (" + candidateCount + "): " + (matchedCommand == null ? null : matchedCommand.getMatchedLabel()));
+            }
+
+            @Override
+            public Object executionStarted(CommandHandler commandHandler, CommandEvent<?> event) {
+                traced.add("start execute " + commandHandler.getCommandName());
+                return commandHandler;
+            }
+
+            @Override
+            public void commandExecuted(Object context, CommandHandler commandHandler, CommandEvent<?> event, boolean failed, long nanos) {
+                Assert.assertSame(commandHandler, context);
+                traced.add("execute " + commandHandler.getCommandName() + (failed ? " (failed)" : ""));
+            }
+
+            @Override
+            public Object helpRenderStarted(CommandSender sender, int pageNumber) {
+                return null;
+            }
+
+            @Override
+            public void helpRendered(Object context, CommandSender sender, int pageNumber, boolean found, long nanos) {
+                traced.add("help " + pageNumber);
+            }
+        });
+
+        manager.onCommand(new MockCommandEvent<>(manager, "something wow", mock(CommandSender.class)));
+        manager.onCommand(new MockCommandEvent<>(manager, "nothing here", mock(CommandSender.class)));
+
+        Assert.assertEquals(6, traced.size());
+        Assert.assertEquals("start match something wow", traced.get(0));
+        Assert.assertEquals("match something wow (1): something <var>", traced.get(1));
+        Assert.assertEquals("start execute something <var>", traced.get(2));
+        Assert.assertEquals("execute something <var>", traced.get(3));
+        Assert.assertEquals("start match nothing here", traced.get(4));
+        Assert.assertEquals("match nothing here (0): null", traced.get(5));
+    }
+}
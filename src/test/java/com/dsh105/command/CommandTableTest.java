@@ -0,0 +1,59 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+
+public class CommandTableTest {
+
+    @Test
+    public void testFind() {
+        CommandTable commandTable = CommandTable.find(MockTableCommandListener.class);
+        Assert.assertNotNull(commandTable);
+        Assert.assertEquals(MockTableCommandListener.class, commandTable.getListenerType());
+        Assert.assertEquals(4, commandTable.getEntries().size());
+
+        // Not generated for this one
+        Assert.assertNull(CommandTable.find(MockCommandListener.class));
+    }
+
+    @Test
+    public void testRegistration() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        MockTableCommandListener listener = new MockTableCommandListener();
+        manager.register(listener);
+
+        Assert.assertTrue(manager.getRegisteredCommandNames(listener).contains("table"));
+        Assert.assertTrue(manager.getRegisteredCommandNames(listener).contains("table sub <var>"));
+        Assert.assertTrue(manager.getRegisteredCommandNames(listener).contains("table give <amount:int>"));
+        Assert.assertTrue(manager.getRegisteredCommandNames(listener).contains("hidden"));
+
+        MatchedCommand matchedCommand = manager.matchCommand("table sub wow");
+        Assert.assertNotNull(matchedCommand);
+        Assert.assertEquals("table.sub.wow", matchedCommand.getCommandHandler().getPermissions(matchedCommand.getVariableMatcher())[0]);
+
+        for (String command : new String[]{"table", "t", "table sub wow", "table give 2", "hidden"}) {
+            Assert.assertTrue(manager.onCommand(new MockCommandEvent<>(manager, command, mock(CommandSender.class))));
+        }
+        Assert.assertEquals(6, listener.getExecutions());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import com.dsh105.command.metrics.CommandWatchdog;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommandWatchdogTest {
+
+    @Test
+    public void testSlowCommands() {
+        final List<String> reports = new ArrayList<>();
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                synchronized (reports) {
+                    reports.add(record.getMessage());
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getName()).thenReturn("WatchdogTest");
+        when(plugin.getLogger()).thenReturn(logger);
+
+        MockCommandManager manager = new MockCommandManager(plugin);
+        CommandWatchdog watchdog = new CommandWatchdog(plugin, 20, TimeUnit.MILLISECONDS, 1, TimeUnit.HOURS);
+        manager.setWatchdog(watchdog);
+        manager.register(new SlowCommandListener());
+
+        manager.onCommand(new MockCommandEvent<>(manager, "fast", mock(CommandSender.class)));
+        manager.onCommand(new MockCommandEvent<>(manager, "slow 1", mock(CommandSender.class)));
+        manager.onCommand(new MockCommandEvent<>(manager, "slow 2", mock(CommandSender.class)));
+        manager.onCommand(new MockCommandEvent<>(manager, "slow 3", mock(CommandSender.class)));
+        watchdog.shutdown();
+
+        synchronized (reports) {
+            // Later reports for the same command are rate limited
+            Assert.assertEquals(1, reports.size());
+            Assert.assertTrue(reports.get(0).startsWith("Command \"slow 1\" has been running for"));
+            Assert.assertTrue(reports.get(0).contains("label: slow <time>"));
+            Assert.assertTrue(reports.get(0).contains("Thread.sleep"));
+        }
+    }
+
+    public static class SlowCommandListener implements CommandListener {
+
+        @Command(
+                command = "slow <time>",
+                description = "Test slow command"
+        )
+        public boolean slowCommand(CommandEvent event) throws InterruptedException {
+            Thread.sleep(200);
+            return true;
+        }
+
+        @Command(
+                command = "fast",
+                description = "Test fast command"
+        )
+        public boolean fastCommand(CommandEvent event) {
+            return true;
+        }
+    }
+}
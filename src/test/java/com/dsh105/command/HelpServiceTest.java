@@ -0,0 +1,104 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.mock;
+
+public class HelpServiceTest {
+
+    @Test
+    public void testIncrementalUpdates() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin()) {
+            private final HelpService helpService = new HelpService(this);
+
+            @Override
+            public HelpService getHelpService() {
+                return helpService;
+            }
+        };
+        CommandListener listener = new MockCommandListener();
+        manager.register(listener);
+
+        int expected = 0;
+        for (CommandHandler commandHandler : manager.getAllRegisteredCommands()) {
+            if (commandHandler.getCommand().includeInHelp()) {
+                expected++;
+            }
+        }
+        Assert.assertTrue(expected > 0);
+        Assert.assertEquals(expected, manager.getHelpService().getPaginator().getRaw().size());
+
+        // A full rebuild should give the same result as the incremental updates
+        manager.getHelpService().prepare();
+        Assert.assertEquals(expected, manager.getHelpService().getPaginator().getRaw().size());
+
+        manager.unregister(listener);
+        Assert.assertTrue(manager.getHelpService().getPaginator().getRaw().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentRendering() throws InterruptedException {
+        final MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin()) {
+            private final HelpService helpService = new HelpService(this);
+
+            @Override
+            public HelpService getHelpService() {
+                return helpService;
+            }
+        };
+        manager.register(new MockTableCommandListener());
+
+        final CommandSender sender = mock(CommandSender.class);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicBoolean registering = new AtomicBoolean(true);
+        Thread renderer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (registering.get()) {
+                        manager.getHelpService().sendPage(sender, 1);
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        });
+        renderer.start();
+
+        CommandListener listener = new MockCommandListener();
+        for (int i = 0; i < 2000; i++) {
+            manager.register(listener);
+            manager.getHelpService().update();
+            manager.unregister(listener);
+            manager.getHelpService().update();
+        }
+        registering.set(false);
+        renderer.join();
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+}
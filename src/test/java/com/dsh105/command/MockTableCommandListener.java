@@ -0,0 +1,68 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+@Command(
+        command = "table",
+        description = "Test table command",
+        aliases = "t"
+)
+public class MockTableCommandListener implements CommandListener {
+
+    private int executions;
+
+    public int getExecutions() {
+        return executions;
+    }
+
+    @ParentCommand
+    public boolean parentCommand(CommandEvent event) {
+        executions++;
+        return true;
+    }
+
+    @NestedCommand
+    @Command(
+            command = "sub <var>",
+            description = "Test table sub command",
+            permission = "table.sub.<var>"
+    )
+    public boolean subCommand(CommandEvent event) {
+        executions++;
+        return true;
+    }
+
+    @Command(
+            command = "table give <amount:int>",
+            description = "Test table command with an injected variable"
+    )
+    public boolean giveCommand(CommandEvent event, @Var("amount") Integer amount) {
+        executions += amount;
+        return true;
+    }
+
+    @Command(
+            command = "hidden",
+            description = "Test private command",
+            includeInHelp = false
+    )
+    private boolean hiddenCommand(CommandEvent event) {
+        executions++;
+        return true;
+    }
+}
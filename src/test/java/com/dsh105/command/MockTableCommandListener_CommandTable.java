@@ -0,0 +1,55 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+/**
+ * Command table of {@link com.dsh105.command.MockTableCommandListener}, generated by com.dsh105.command.processor.CommandTableProcessor - do not edit
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public final class MockTableCommandListener_CommandTable extends com.dsh105.command.CommandTable {
+
+    public MockTableCommandListener_CommandTable() {
+        super(com.dsh105.command.MockTableCommandListener.class,
+                new com.dsh105.command.CommandTable.Entry(com.dsh105.command.CommandTable.Kind.PARENT, "parentCommand", com.dsh105.command.CommandEvent.class, org.bukkit.command.CommandSender.class,
+                    command("table", "Test table command", new String[] {""}, new String[] {"t"}, new String[] {}, new String[] {"Usage: /<command>"}, true),
+                    null, null,
+                    new com.dsh105.command.CommandInvoker() {
+                        @Override
+                        public boolean invoke(com.dsh105.command.CommandListener listener, com.dsh105.command.CommandEvent event) throws Exception {
+                            return ((com.dsh105.command.MockTableCommandListener) listener).parentCommand((com.dsh105.command.CommandEvent) event);
+                        }
+                    }),
+                new com.dsh105.command.CommandTable.Entry(com.dsh105.command.CommandTable.Kind.NESTED, "subCommand", com.dsh105.command.CommandEvent.class, org.bukkit.command.CommandSender.class,
+                    command("sub <var>", "Test table sub command", new String[] {"table.sub.<var>"}, new String[] {}, new String[] {}, new String[] {"Usage: /<command>"}, true),
+                    "table ", new String[] {"t"},
+                    new com.dsh105.command.CommandInvoker() {
+                        @Override
+                        public boolean invoke(com.dsh105.command.CommandListener listener, com.dsh105.command.CommandEvent event) throws Exception {
+                            return ((com.dsh105.command.MockTableCommandListener) listener).subCommand((com.dsh105.command.CommandEvent) event);
+                        }
+                    }),
+                new com.dsh105.command.CommandTable.Entry(com.dsh105.command.CommandTable.Kind.COMMAND, "giveCommand", new Class<?>[] {com.dsh105.command.CommandEvent.class, java.lang.Integer.class}, org.bukkit.command.CommandSender.class,
+                    command("table give <amount:int>", "Test table command with an injected variable", new String[] {""}, new String[] {}, new String[] {}, new String[] {"Usage: /<command>"}, true),
+                    null, null,
+                    null),
+                new com.dsh105.command.CommandTable.Entry(com.dsh105.command.CommandTable.Kind.COMMAND, "hiddenCommand", com.dsh105.command.CommandEvent.class, org.bukkit.command.CommandSender.class,
+                    command("hidden", "Test private command", new String[] {""}, new String[] {}, new String[] {}, new String[] {"Usage: /<command>"}, false),
+                    null, null,
+                    null));
+    }
+}
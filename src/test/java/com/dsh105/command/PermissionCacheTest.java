@@ -0,0 +1,65 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.entity.Player;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PermissionCacheTest {
+
+    @Test
+    public void testCaching() {
+        Player player = mockPlayer();
+        when(player.hasPermission("test.permission")).thenReturn(true);
+
+        PermissionCache permissionCache = new PermissionCache();
+        Assert.assertTrue(permissionCache.hasPermission(player, "test.permission"));
+
+        // Result should be cached until invalidated
+        when(player.hasPermission("test.permission")).thenReturn(false);
+        Assert.assertTrue(permissionCache.hasPermission(player, "test.permission"));
+
+        permissionCache.invalidate(player);
+        Assert.assertFalse(permissionCache.hasPermission(player, "test.permission"));
+    }
+
+    @Test
+    public void testExpiry() {
+        Player player = mockPlayer();
+        when(player.hasPermission("test.permission")).thenReturn(true);
+
+        PermissionCache permissionCache = new PermissionCache(0, TimeUnit.SECONDS, 1);
+        Assert.assertTrue(permissionCache.hasPermission(player, "test.permission"));
+
+        when(player.hasPermission("test.permission")).thenReturn(false);
+        Assert.assertFalse(permissionCache.hasPermission(player, "test.permission"));
+    }
+
+    private Player mockPlayer() {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        return player;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RegexGuardTest {
+
+    // Nested quantifiers backtrack catastrophically on a long run of a's that does not end with b
+    private static final String EVIL_INPUT = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaac";
+
+    @Test
+    public void testBoundedMatch() {
+        final AtomicInteger aborted = new AtomicInteger();
+        RegexGuard regexGuard = new RegexGuard(10000) {
+            @Override
+            protected void aborted(Pattern pattern, CharSequence input) {
+                aborted.incrementAndGet();
+            }
+        };
+
+        Assert.assertTrue(regexGuard.matches(Pattern.compile("((a+)+)+b"), "aaab"));
+        Assert.assertEquals(0, aborted.get());
+
+        long start = System.nanoTime();
+        Assert.assertFalse(regexGuard.matches(Pattern.compile("((a+)+)+b"), EVIL_INPUT));
+        Assert.assertEquals(1, aborted.get());
+        // Without the guard, this would not finish in any reasonable time
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void testAbortedDispatch() {
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getName()).thenReturn("RegexGuardTest");
+        when(plugin.getLogger()).thenReturn(Logger.getAnonymousLogger());
+
+        MockCommandManager manager = new MockCommandManager(plugin);
+        manager.setRegexReadLimit(10000);
+        EvilCommandListener listener = new EvilCommandListener();
+        manager.register(listener);
+
+        Assert.assertTrue(manager.onCommand(new MockCommandEvent<>(manager, "evil aaab", mock(CommandSender.class))));
+        Assert.assertEquals("regex", listener.executed);
+        Assert.assertEquals(0, manager.getMetrics().getAbortedMatches());
+
+        // The regex is abandoned and the input left to the other command
+        Assert.assertTrue(manager.onCommand(new MockCommandEvent<>(manager, "evil " + EVIL_INPUT, mock(CommandSender.class))));
+        Assert.assertEquals("other", listener.executed);
+        Assert.assertTrue(manager.getMetrics().getAbortedMatches() > 0);
+    }
+
+    public static class EvilCommandListener implements CommandListener {
+
+        private String executed;
+
+        @Command(
+                command = "evil <r:\"((a+)+)+b\",n:input>",
+                description = "Catastrophic regex test"
+        )
+        public boolean regex(CommandEvent event) {
+            executed = "regex";
+            return true;
+        }
+
+        @Command(
+                command = "evil <other>",
+                description = "Untyped variable test"
+        )
+        public boolean other(CommandEvent event) {
+            executed = "other";
+            return true;
+        }
+    }
+}
@@ -17,12 +17,15 @@
 
 package com.dsh105.command;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class SortingTest {
 
@@ -35,10 +38,16 @@ public class SortingTest {
             System.out.println("- " + command);
         }
 
+        // Compiled once, like the syntax of each command handler
+        final Map<String, CommandSyntax> syntaxes = new IdentityHashMap<>();
+        for (String command : commands) {
+            syntaxes.put(command, new CommandSyntax(command));
+        }
+
         Collections.sort(commands, new Comparator<String>() {
             @Override
             public int compare(String first, String second) {
-                int result = CommandHandler.compare(first, second);
+                int result = syntaxes.get(first).compareTo(syntaxes.get(second));
                 System.out.println("Comparing: \"" + first + "\" and \"" + second + "\" -> " + result);
                 return result;
             }
@@ -48,5 +57,11 @@ public class SortingTest {
         for (String command : commands) {
             System.out.println("- (" + commands.indexOf(command) + ") " + command);
         }
+
+        // Literal arguments take precedence over variables in the same position
+        Assert.assertTrue(commands.indexOf("test nothing") < commands.indexOf("test <var>"));
+        Assert.assertTrue(commands.indexOf("test nothing <var>") < commands.indexOf("test <var>"));
+        Assert.assertTrue(commands.indexOf("test <r:\"(.+)\",n:var>") < commands.indexOf("test <var>"));
+        Assert.assertTrue(commands.indexOf("test <var>") < commands.indexOf("test"));
     }
 }
\ No newline at end of file
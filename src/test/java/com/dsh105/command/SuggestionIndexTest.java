@@ -0,0 +1,58 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SuggestionIndexTest {
+
+    @Test
+    public void testDistance() {
+        Assert.assertEquals(0, SuggestionIndex.distance("example", "example"));
+        Assert.assertEquals(1, SuggestionIndex.distance("exmaple", "example"));
+        Assert.assertEquals(1, SuggestionIndex.distance("exampl", "example"));
+        Assert.assertEquals(1, SuggestionIndex.distance("exsample", "example"));
+        Assert.assertEquals(2, SuggestionIndex.distance("ca", "abc"));
+        Assert.assertEquals(7, SuggestionIndex.distance("", "example"));
+    }
+
+    @Test
+    public void testSuggestions() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        CommandListener listener = new MockCommandListener();
+        manager.register(listener);
+
+        List<String> suggestions = manager.getSuggestionIndex().suggest("prent");
+        Assert.assertEquals(Collections.singletonList("parent"), suggestions);
+        Assert.assertEquals(Collections.singletonList("something"), manager.getSuggestionIndex().suggest("somehting"));
+        Assert.assertEquals(Arrays.asList("extra"), manager.getSuggestionIndex().suggest("EXTAR"));
+        Assert.assertTrue(manager.getSuggestionIndex().suggest("parent").isEmpty());
+        Assert.assertTrue(manager.getSuggestionIndex().suggest("nothing").isEmpty());
+
+        manager.unregister(listener);
+        Assert.assertTrue(manager.getSuggestionIndex().suggest("prent").isEmpty());
+
+        manager.register(listener);
+        Assert.assertEquals(Collections.singletonList("parent"), manager.getSuggestionIndex().suggest("prent"));
+    }
+}
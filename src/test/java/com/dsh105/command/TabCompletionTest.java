@@ -0,0 +1,209 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+public class TabCompletionTest {
+
+    @Test
+    public void testCompletion() {
+        PermissionCommandManager manager = new PermissionCommandManager();
+        manager.register(new CompletionCommandListener());
+        manager.granted.addAll(Arrays.asList("kit.use", "kit.admin"));
+        CommandSender sender = mock(CommandSender.class);
+
+        List<String> completions = manager.onTabComplete(sender, null, "kit", new String[]{""});
+        Assert.assertEquals(Arrays.asList("admin", "give"), completions);
+        Assert.assertEquals(Collections.singletonList("give"), manager.onTabComplete(sender, null, "kit", new String[]{"G"}));
+        Assert.assertEquals(Collections.singletonList("reset"), manager.onTabComplete(sender, null, "kit", new String[]{"admin", ""}));
+        Assert.assertTrue(manager.onTabComplete(sender, null, "kit", new String[]{"nothing", ""}).isEmpty());
+
+        // Player-only commands are not completed for other senders
+        Assert.assertTrue(manager.onTabComplete(sender, null, "kit", new String[]{"l"}).isEmpty());
+
+        // Variables without a completion provider are left to the default completions
+        Assert.assertNull(manager.onTabComplete(sender, null, "kit", new String[]{"give", ""}));
+
+        manager.registerCompletionProvider("player", new CompletionProvider() {
+            @Override
+            public List<String> complete(CommandSender sender, String partial) {
+                return Arrays.asList("Notch", "Dinnerbone");
+            }
+        });
+        Assert.assertEquals(Arrays.asList("Notch", "Dinnerbone"), manager.onTabComplete(sender, null, "kit", new String[]{"give", ""}));
+        Assert.assertEquals(Collections.singletonList("Notch"), manager.onTabComplete(sender, null, "kit", new String[]{"give", "n"}));
+        Assert.assertNull(manager.onTabComplete(sender, null, "kit", new String[]{"give", "Notch", ""}));
+
+        manager.granted.remove("kit.admin");
+        Assert.assertEquals(Collections.singletonList("give"), manager.onTabComplete(sender, null, "kit", new String[]{""}));
+
+        manager.granted.clear();
+        Assert.assertTrue(manager.onTabComplete(sender, null, "kit", new String[]{""}).isEmpty());
+    }
+
+    @Test
+    public void testAsyncCompletion() throws Exception {
+        PermissionCommandManager manager = new PermissionCommandManager();
+        manager.register(new CompletionCommandListener());
+        manager.granted.add("kit.use");
+        ExecutorService executor = Executors.newCachedThreadPool();
+        manager.setAsyncExecutor(executor);
+        CommandSender sender = mock(CommandSender.class);
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AtomicInteger lookups = new AtomicInteger();
+        manager.registerCompletionProvider("player", new AsyncCompletionProvider() {
+            @Override
+            public List<String> complete(CommandSender sender, String partial) {
+                lookups.incrementAndGet();
+                if (partial.equals("slow")) {
+                    blocked.countDown();
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return Collections.emptyList();
+                }
+                return Arrays.asList("Notch", "Nobody");
+            }
+        });
+
+        // Not available straight away - but cached for the next request
+        Assert.assertTrue(manager.onTabComplete(sender, null, "kit", new String[]{"give", "slow"}).isEmpty());
+        Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // A newer keystroke cancels the completion still running
+        manager.getCompletionService().setTimeout(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList("Notch", "Nobody"), manager.onTabComplete(sender, null, "kit", new String[]{"give", "No"}));
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+        // Served from the cache
+        Assert.assertEquals(Arrays.asList("Notch", "Nobody"), manager.onTabComplete(sender, null, "kit", new String[]{"give", "no"}));
+        Assert.assertEquals(2, lookups.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCancelOnQuit() throws Exception {
+        PermissionCommandManager manager = new PermissionCommandManager();
+        manager.register(new CompletionCommandListener());
+        manager.granted.add("kit.use");
+        ExecutorService executor = Executors.newCachedThreadPool();
+        manager.setAsyncExecutor(executor);
+        Player player = mock(Player.class);
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        manager.registerCompletionProvider("player", new AsyncCompletionProvider() {
+            @Override
+            public List<String> complete(CommandSender sender, String partial) {
+                blocked.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return Collections.emptyList();
+            }
+        });
+
+        Assert.assertTrue(manager.onTabComplete(player, null, "kit", new String[]{"give", "slow"}).isEmpty());
+        Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // Leaving the server cancels the completion still running for the player
+        new PermissionCacheListener(manager).onQuit(new PlayerQuitEvent(player, "Left the game"));
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    private static class PermissionCommandManager extends MockCommandManager {
+
+        private final Set<String> granted = new HashSet<>();
+
+        public PermissionCommandManager() {
+            super(CommandManagerTest.getMockedPlugin());
+        }
+
+        @Override
+        public boolean hasPermission(CommandSender sender, String permission) {
+            return granted.contains(permission);
+        }
+    }
+
+    @Command(
+            command = "kit",
+            description = "Test kit command",
+            aliases = "k",
+            permission = "kit.use"
+    )
+    public static class CompletionCommandListener implements CommandListener {
+
+        @ParentCommand
+        public boolean kit(CommandEvent event) {
+            return true;
+        }
+
+        @NestedCommand
+        @Command(
+                command = "give <player> <kit>",
+                description = "Test variable completion"
+        )
+        public boolean give(CommandEvent event) {
+            return true;
+        }
+
+        @NestedCommand
+        @Command(
+                command = "list",
+                description = "Test sender filtering"
+        )
+        public boolean list(CommandEvent<Player> event) {
+            return true;
+        }
+
+        @NestedCommand
+        @Command(
+                command = "admin reset",
+                description = "Test permission filtering",
+                permission = "kit.admin"
+        )
+        public boolean reset(CommandEvent event) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of CommandManager.
+ *
+ * CommandManager is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CommandManager is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CommandManager.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.command;
+
+import com.dsh105.command.exception.InvalidCommandException;
+import org.bukkit.command.CommandSender;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+
+public class VariableInjectionTest {
+
+    @Test
+    public void testInjection() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        InjectedCommandListener listener = new InjectedCommandListener();
+        manager.register(listener);
+
+        Assert.assertTrue(manager.onCommand(new MockCommandEvent<>(manager, "pay 20 for the cake", mock(CommandSender.class))));
+        Assert.assertEquals(20, listener.amount);
+        Assert.assertEquals("for the cake", listener.note);
+
+        // Alias without the note, so the primitive is injected but the note is not
+        Assert.assertTrue(manager.onCommand(new MockCommandEvent<>(manager, "give 5", mock(CommandSender.class))));
+        Assert.assertEquals(5, listener.amount);
+        Assert.assertNull(listener.note);
+
+        // Never reaches the handler
+        listener.amount = -1;
+        manager.onCommand(new MockCommandEvent<>(manager, "pay lots", mock(CommandSender.class)));
+        Assert.assertEquals(-1, listener.amount);
+    }
+
+    @Test
+    public void testInvalidInjection() {
+        MockCommandManager manager = new MockCommandManager(CommandManagerTest.getMockedPlugin());
+        try {
+            manager.register(new InvalidCommandListener());
+            Assert.fail("Variables that do not exist should not be injected");
+        } catch (InvalidCommandException e) {
+            Assert.assertTrue(e.getMessage().contains("\"total\""));
+        }
+    }
+
+    public static class InjectedCommandListener implements CommandListener {
+
+        private int amount;
+        private String note;
+
+        @Command(
+                command = "pay <amount:int> [note...]",
+                description = "Injected variable test",
+                aliases = "give <amount:int>"
+        )
+        public boolean pay(CommandEvent event, @Var("amount") int amount, @Var("note") String note) {
+            this.amount = amount;
+            this.note = note;
+            return true;
+        }
+    }
+
+    public static class InvalidCommandListener implements CommandListener {
+
+        @Command(
+                command = "pay <amount:int>",
+                description = "Invalid injected variable test"
+        )
+        public boolean pay(CommandEvent event, @Var("total") int total) {
+            return true;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 
 package com.dsh105.command;
 
+import com.dsh105.command.exception.InvalidCommandException;
 import com.dsh105.commodus.StringUtil;
 import org.junit.Assert;
 import org.junit.Test;
@@ -61,4 +62,43 @@ public class VariableMatcherTest {
         Assert.assertEquals("yer", trueVariableMatcher.getMatchedArgumentByVariableRegex("yer"));
         Assert.assertTrue(trueVariableMatcher.testRegexVariables());
     }
+
+    @Test
+    public void testPermissions() {
+        VariableMatcher variableMatcher = new VariableMatcher("permission <first> <second> [third]", "permission one two three");
+        Assert.assertEquals("command.one.two", variableMatcher.replaceVariables("command.<first>.<second>"));
+        Assert.assertEquals("command.three", variableMatcher.replaceVariables("command.[third]"));
+        Assert.assertEquals("command", variableMatcher.replaceVariables("command"));
+        Assert.assertNull(variableMatcher.replaceVariables("command.[fourth]"));
+
+        PermissionTemplate template = new PermissionTemplate("<second>.<first>.<second>", variableMatcher.getSyntax());
+        Assert.assertTrue(template.isValid());
+        Assert.assertEquals("two.one.two", template.resolve(variableMatcher));
+    }
+
+    @Test
+    public void testTypedVariables() {
+        CommandSyntax syntax = new CommandSyntax("pay <amount:int> <reason:string...>");
+        Assert.assertEquals("pay <amount> <reason...>", syntax.getHumanReadableSyntax());
+        Assert.assertEquals(0, syntax.getSlot("amount"));
+        Assert.assertEquals(1, syntax.getSlot("reason"));
+        Assert.assertEquals("int", syntax.getVariable(0).getType());
+        Assert.assertTrue(syntax.containsTypedVariables());
+
+        VariableMatcher variableMatcher = new VariableMatcher(syntax, "pay 20 for the cake");
+        Assert.assertTrue(variableMatcher.matches());
+        Assert.assertTrue(variableMatcher.parseValues());
+        Assert.assertEquals(20, (int) variableMatcher.<Integer>getValue("amount"));
+        Assert.assertEquals("for the cake", variableMatcher.getValue(1));
+        Assert.assertEquals("20", variableMatcher.getMatchedArgumentByVariableName("amount"));
+
+        VariableMatcher invalidMatcher = new VariableMatcher(syntax, "pay twenty for the cake");
+        Assert.assertTrue(invalidMatcher.matches());
+        Assert.assertFalse(invalidMatcher.parseValues());
+    }
+
+    @Test(expected = InvalidCommandException.class)
+    public void testUnknownVariableType() {
+        new CommandSyntax("pay <amount:money>");
+    }
 }
\ No newline at end of file